@@ -1,6 +1,5 @@
 package com.mzaart.aquery;
 
-import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.content.Context;
 import android.graphics.Bitmap;
@@ -8,13 +7,10 @@ import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.support.annotation.NonNull;
-import android.util.DisplayMetrics;
-import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewPropertyAnimator;
-import android.view.ViewTreeObserver;
 import android.view.animation.Animation;
 import android.widget.EditText;
 import android.widget.ImageView;
@@ -23,13 +19,28 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.mzaart.aquery.exceptions.SDKVersionException;
+import com.mzaart.aquery.interfaces.AnimatorSetup;
+import com.mzaart.aquery.interfaces.BatchUpdate;
+import com.mzaart.aquery.interfaces.Cancellable;
+import com.mzaart.aquery.interfaces.ChildVisitor;
 import com.mzaart.aquery.interfaces.EventListener;
 import com.mzaart.aquery.interfaces.SeekBarProgressChangedListener;
+import com.mzaart.aquery.interfaces.ValidationListener;
+import com.mzaart.aquery.utils.BitmapCache;
+import com.mzaart.aquery.utils.Chars;
+import com.mzaart.aquery.utils.DiskCache;
+import com.mzaart.aquery.utils.Metrics;
+import com.mzaart.aquery.utils.RuleChain;
+import com.mzaart.aquery.utils.TextLayoutCache;
+import com.mzaart.aquery.utils.TypefaceCache;
 import com.mzaart.aquery.utils.Validator;
+import com.mzaart.aquery.utils.ViewCache;
 import com.mzaart.aquery.exceptions.IllegalParentException;
 import com.mzaart.aquery.exceptions.IllegalViewActionException;
 import com.mzaart.aquery.exceptions.ViewNotFoundException;
 
+import java.io.File;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,6 +50,8 @@ public class AQ {
     private Context context;
     private View raw;
 
+    private FrameUpdate frameUpdate;
+
     /**
      * Instantiates an AQuery instance from a context and sets
      * the Context's root view as the current view.
@@ -88,7 +101,7 @@ public class AQ {
 
          if (!(context instanceof Activity))
              throw new IllegalArgumentException("Context should be an Activity.");
-        this.raw = ((Activity) context).findViewById(id);
+        this.raw = ViewCache.find(((Activity) context).getWindow().getDecorView(), id);
 
         if (raw == null)
             throw new ViewNotFoundException();
@@ -110,7 +123,7 @@ public class AQ {
         requireNotNull(view);
 
         this.context = view.getContext();
-        this.raw = view.findViewById(id);
+        this.raw = ViewCache.find(view, id);
 
         if (raw == null)
             throw new ViewNotFoundException();
@@ -132,7 +145,7 @@ public class AQ {
         requireNotNull(aquery);
 
         this.context = aquery.context;
-        this.raw = aquery.raw().findViewById(id);
+        this.raw = ViewCache.find(aquery.raw(), id);
 
         if (raw == null)
             throw new ViewNotFoundException();
@@ -159,7 +172,8 @@ public class AQ {
     }
 
     /**
-     * Returns an AQuery object containing a view with a specific id.
+     * Returns an AQuery object containing a view with a specific id. Lookups are cached
+     * per root view, see {@link ViewCache}.
      *
      * @param  id The View's Id.
      * @return View The base view of the AQuery object.
@@ -169,7 +183,7 @@ public class AQ {
      */
     @NonNull
     public AQ find(int id) {
-        View target =  raw().findViewById(id);
+        View target = ViewCache.find(raw(), id);
 
         if (target == null)
             throw new ViewNotFoundException();
@@ -177,6 +191,66 @@ public class AQ {
         return new AQ(target);
     }
 
+    /**
+     * Returns a set containing the views with the specified ids. Ids that don't correspond
+     * to any view are ignored.
+     *
+     * @param ids The views' ids.
+     * @return A set containing the views with the specified ids.
+     *
+     * @throws IllegalArgumentException If ids is null.
+     */
+    @NonNull
+    public AQSet findAll(@NonNull int... ids) {
+        requireNotNull(ids);
+        AQSet set = new AQSet(ids.length);
+        for (int id : ids) {
+            View target = ViewCache.find(raw(), id);
+            if (target != null) {
+                set.add(target);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Returns a set containing the view and its descendants whose tag equals the given tag.
+     *
+     * @param tag The tag to look for.
+     * @return A set containing the views with the given tag.
+     *
+     * @throws IllegalArgumentException If tag is null.
+     */
+    @NonNull
+    public AQSet findByTag(@NonNull Object tag) {
+        requireNotNull(tag);
+        AQSet set = new AQSet(8);
+        set.addByTag(raw(), tag);
+        return set;
+    }
+
+    /**
+     * Returns a set containing the view and its descendants that are instances of a class.
+     *
+     * <pre>
+     *     {@code
+     *     AQ(this).findByClass(EditText.class).text("");
+     *     }
+     * </pre>
+     *
+     * @param type The class of the views to look for.
+     * @return A set containing the views that are instances of the class.
+     *
+     * @throws IllegalArgumentException If type is null.
+     */
+    @NonNull
+    public AQSet findByClass(@NonNull Class<? extends View> type) {
+        requireNotNull(type);
+        AQSet set = new AQSet(8);
+        set.addByClass(raw(), type);
+        return set;
+    }
+
     /**
      * Returns an AQuery object containing the view's parent.
      *
@@ -238,9 +312,11 @@ public class AQ {
     @NonNull
     public List<AQ> children() {
         if (raw() instanceof ViewGroup) {
-            List<AQ> children = new ArrayList<>(childCount());
-            for (int i = 0; i < childCount(); i++) {
-                children.add(childAt(i));
+            ViewGroup group = (ViewGroup) raw();
+            int count = group.getChildCount();
+            List<AQ> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                children.add(new AQ(group.getChildAt(i)));
             }
             return children;
         } else {
@@ -248,6 +324,44 @@ public class AQ {
         }
     }
 
+    /**
+     * Visits the children of the ViewGroup without allocating an AQuery object per child.
+     * A single AQuery object is reused for all the children, so the visitor shouldn't keep it.
+     *
+     * Note: Children shouldn't be added or removed while they are being visited.
+     *
+     * @param visitor The visitor to call for every child
+     * @return The current AQuery object
+     *
+     * @throws IllegalArgumentException If the visitor is null
+     *
+     * @throws IllegalViewActionException If the view is not a ViewGroup
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQ forEachChild(@NonNull ChildVisitor visitor) {
+        requireNotNull(visitor);
+        if (raw() instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) raw();
+            int count = group.getChildCount();
+            if (count == 0) {
+                return this;
+            }
+
+            AQ cursor = new AQ(group.getChildAt(0));
+            for (int i = 0; i < count; i++) {
+                View child = group.getChildAt(i);
+                if (child == null) {
+                    break;
+                }
+                visitor.visit(cursor.rebind(child), i);
+            }
+            return this;
+        } else {
+            throw new IllegalViewActionException();
+        }
+    }
+
     /**
      * Gets the visibility of the view.
      *
@@ -264,6 +378,12 @@ public class AQ {
      */
     @NonNull
     public AQ visibility(int visibility) {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.VISIBILITY, visibility);
+            return this;
+        }
+
+        FrameScheduler.drop(raw(), FrameScheduler.VISIBILITY);
         raw().setVisibility(visibility);
         return this;
     }
@@ -275,6 +395,11 @@ public class AQ {
      * @see  RuntimeException
      */
     public void remove() {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.REMOVE, 0);
+            return;
+        }
+
         try {
             ((ViewGroup) raw().getParent()).removeView(raw);
         } catch (ClassCastException e) {
@@ -292,6 +417,13 @@ public class AQ {
      */
     @NonNull
     public AQ removeAllViews() {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.REMOVE_ALL_VIEWS, 0);
+            return this;
+        }
+
         try {
             ((ViewGroup) raw()).removeAllViews();
             return this;
@@ -314,6 +446,13 @@ public class AQ {
     @NonNull
     public AQ append(@NonNull View v) {
         requireNotNull(v);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.APPEND, v, null, -1, 0, 0);
+            return this;
+        }
+
         try {
             ((ViewGroup) raw()).addView(v);
             return this;
@@ -335,13 +474,7 @@ public class AQ {
     @NonNull
     public AQ append(@NonNull AQ v) {
         requireNotNull(v);
-
-        try {
-            ((ViewGroup) raw()).addView(v.raw());
-            return this;
-        } catch (ClassCastException e) {
-            throw new IllegalViewActionException();
-        }
+        return append(v.raw());
     }
 
     /**
@@ -360,6 +493,12 @@ public class AQ {
     @NonNull
     public AQ append(View v, int width, int height) {
         requireNotNull(v);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.APPEND_SIZE, v, null, width, height, 0);
+            return this;
+        }
 
         try {
             ((ViewGroup) raw()).addView(v, width, height);
@@ -384,13 +523,7 @@ public class AQ {
     @NonNull
     public AQ append(AQ v, int width, int height) {
         requireNotNull(v);
-
-        try {
-            ((ViewGroup) raw()).addView(v.raw(), width, height);
-            return this;
-        } catch (ClassCastException e) {
-            throw new IllegalViewActionException();
-        }
+        return append(v.raw(), width, height);
     }
 
     /**
@@ -407,6 +540,12 @@ public class AQ {
     @NonNull
     public AQ append(View v, ViewGroup.LayoutParams params) {
         requireNotNull(v, params);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.APPEND_PARAMS, v, params, -1, 0, 0);
+            return this;
+        }
 
         try {
             ((ViewGroup) raw()).addView(v, params);
@@ -430,13 +569,7 @@ public class AQ {
     @NonNull
     public AQ append(AQ v, ViewGroup.LayoutParams params) {
         requireNotNull(v, params);
-
-        try {
-            ((ViewGroup) raw()).addView(v.raw(), params);
-            return this;
-        } catch (ClassCastException e) {
-            throw new IllegalViewActionException();
-        }
+        return append(v.raw(), params);
     }
 
     /**
@@ -453,6 +586,12 @@ public class AQ {
     @NonNull
     public AQ append(View v, int index) {
         requireNotNull(v);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.APPEND, v, null, index, 0, 0);
+            return this;
+        }
 
         try {
             ((ViewGroup) raw()).addView(v, index);
@@ -476,13 +615,7 @@ public class AQ {
     @NonNull
     public AQ append(AQ v, int index) {
         requireNotNull(v);
-
-        try {
-            ((ViewGroup) raw()).addView(v.raw, index);
-            return this;
-        } catch (ClassCastException e) {
-            throw new IllegalViewActionException();
-        }
+        return append(v.raw(), index);
     }
 
     /**
@@ -500,6 +633,12 @@ public class AQ {
     @NonNull
     public AQ append(View v, int index, ViewGroup.LayoutParams params) {
         requireNotNull(v, params);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.APPEND_PARAMS, v, params, index, 0, 0);
+            return this;
+        }
 
         try {
             ((ViewGroup) raw()).addView(v, index, params);
@@ -524,36 +663,147 @@ public class AQ {
     @NonNull
     public AQ append(AQ v, int index, ViewGroup.LayoutParams params) {
         requireNotNull(v, params);
+        return append(v.raw(), index, params);
+    }
 
-        try {
-            ((ViewGroup) raw()).addView(v.raw(), index, params);
+    /**
+     * Sets an on-click listener. Views bound to the same listener share a single
+     * View.OnClickListener.
+     *
+     * @param onClickListener The onClickListener to be executed when the view is clicked.
+     * @return AQ Current AQuery object.
+     *
+     * @throws  IllegalArgumentException If the onClickListener passed is null.
+     */
+    @NonNull
+    public AQ click(@NonNull EventListener onClickListener) {
+        requireNotNull(onClickListener);
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.CLICK, onClickListener);
             return this;
-        } catch (ClassCastException e) {
-            throw new IllegalViewActionException();
         }
+
+        raw().setOnClickListener(ClickDispatcher.of(onClickListener));
+        return this;
     }
 
     /**
-     * Sets an on-click listener.
+     * Sets an on-click listener that is executed at most once per interval. Clicks that come
+     * before the interval has elapsed since the last executed click are ignored.
      *
      * @param onClickListener The onClickListener to be executed when the view is clicked.
+     * @param interval The minimum time between two executions, in milliseconds.
      * @return AQ Current AQuery object.
      *
-     * @throws  IllegalArgumentException If the onClickListener passed is null.
+     * @throws  IllegalArgumentException If the onClickListener passed is null or the interval
+     * is negative.
      */
     @NonNull
-    public AQ click(@NonNull final EventListener onClickListener) {
+    public AQ clickThrottled(@NonNull EventListener onClickListener, long interval) {
         requireNotNull(onClickListener);
-        raw().setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View view) {
-                onClickListener.onEvent(new AQ(view));
-            }
-        });
+        if (MainThreadQueue.marshals()) {
+            if (interval < 0)
+                throw new IllegalArgumentException("The interval can't be negative");
+            MainThreadQueue.postClick(raw(), onClickListener, RateLimiter.THROTTLE, interval);
+            return this;
+        }
+
+        RateLimiter.Click.set(raw(), onClickListener, RateLimiter.THROTTLE, interval);
+        return this;
+    }
+
+    /**
+     * Sets an on-click listener that is executed once the view hasn't been clicked for an
+     * interval.
+     *
+     * @param onClickListener The onClickListener to be executed when the view is clicked.
+     * @param interval The time without clicks to wait for, in milliseconds.
+     * @return AQ Current AQuery object.
+     *
+     * @throws  IllegalArgumentException If the onClickListener passed is null or the interval
+     * is negative.
+     */
+    @NonNull
+    public AQ clickDebounced(@NonNull EventListener onClickListener, long interval) {
+        requireNotNull(onClickListener);
+        if (MainThreadQueue.marshals()) {
+            if (interval < 0)
+                throw new IllegalArgumentException("The interval can't be negative");
+            MainThreadQueue.postClick(raw(), onClickListener, RateLimiter.DEBOUNCE, interval);
+            return this;
+        }
 
+        RateLimiter.Click.set(raw(), onClickListener, RateLimiter.DEBOUNCE, interval);
         return this;
     }
 
+    /**
+     * Sets a listener for clicks on the descendants of the ViewGroup with a specific id,
+     * including descendants added later. A single touch listener is set on the ViewGroup,
+     * instead of a listener per descendant.
+     *
+     * Note: Touches only reach the ViewGroup if no descendant handles them, so the descendants
+     * shouldn't be clickable themselves. This method replaces the ViewGroup's touch listener.
+     *
+     * <pre>
+     *     {@code
+     *     AQ(this, R.id.list).on(R.id.delete_button, button -> deleteItem(button.parent()));
+     *     }
+     * </pre>
+     *
+     * @param childId The id of the descendants.
+     * @param listener The listener to be executed when a descendant is clicked.
+     * @return The current AQuery object.
+     *
+     * @throws IllegalArgumentException If the listener is null.
+     *
+     * @throws IllegalViewActionException If the view is not a ViewGroup
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQ on(int childId, @NonNull EventListener listener) {
+        requireNotNull(listener);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.ON, listener, null, childId, 0, 0);
+            return this;
+        }
+
+        if (raw() instanceof ViewGroup) {
+            EventDelegate.on((ViewGroup) raw(), childId, listener);
+            return this;
+        } else {
+            throw new IllegalViewActionException();
+        }
+    }
+
+    /**
+     * Removes the listener set by on() for descendants with a specific id.
+     *
+     * @param childId The id of the descendants.
+     * @return The current AQuery object.
+     *
+     * @throws IllegalViewActionException If the view is not a ViewGroup
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQ off(int childId) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ViewGroup))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.OFF, childId);
+            return this;
+        }
+
+        if (raw() instanceof ViewGroup) {
+            EventDelegate.off((ViewGroup) raw(), childId);
+            return this;
+        } else {
+            throw new IllegalViewActionException();
+        }
+    }
+
     /**
      * Performs a click on the current view.
      *
@@ -561,6 +811,11 @@ public class AQ {
      */
     @NonNull
     public AQ click() {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.PERFORM_CLICK, 0);
+            return this;
+        }
+
         raw().performClick();
         return this;
     }
@@ -574,23 +829,38 @@ public class AQ {
      * @return The current AQuery object
      *
      * @throws IllegalArgumentException If the runnable passed in null
+     * @see #onPreDraw(Runnable)
      */
     @NonNull
     public AQ preDraw(@NonNull final Runnable runnable) {
         requireNotNull(runnable);
-        final ViewTreeObserver treeObserver = raw().getViewTreeObserver();
-        treeObserver.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
-            @Override
-            public boolean onPreDraw() {
-                treeObserver.removeOnPreDrawListener(this);
-                runnable.run();
-                return true;
-            }
-        });
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.PRE_DRAW, runnable);
+            return this;
+        }
 
+        onPreDraw(runnable);
         return this;
     }
 
+    /**
+     * Runs a runnable when the view tree is about to be drawn. At this point, all views in the
+     * tree have been measured and given a frame. The runnable is dropped if the view is detached
+     * from its window before that.
+     *
+     * @param runnable The Runnable to run.
+     *
+     * @return A handle to cancel the runnable.
+     *
+     * @throws IllegalArgumentException If the runnable passed in null
+     */
+    @NonNull
+    public Cancellable onPreDraw(@NonNull Runnable runnable) {
+        requireNotNull(runnable);
+        requireMainThread();
+        return TreeCallbacks.add(raw(), TreeCallbacks.PRE_DRAW, runnable);
+    }
+
     /**
      * Runs a runnable when the view tree is rendered. At this point, all views in the tree
      * have been drawn.
@@ -600,27 +870,38 @@ public class AQ {
      * @return The current AQuery object
      *
      * @throws IllegalArgumentException If the runnable passed in null
+     * @see #onReady(Runnable)
      */
     @NonNull
     public AQ ready(@NonNull final Runnable runnable) {
         requireNotNull(runnable);
-        ViewTreeObserver treeObserver = raw().getViewTreeObserver();
-        treeObserver.addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
-            @SuppressLint("ObsoleteSdkInt")
-            @Override
-            public void onGlobalLayout() {
-                runnable.run();
-                if (Build.VERSION.SDK_INT < 16) {
-                    raw().getViewTreeObserver().removeGlobalOnLayoutListener(this);
-                } else {
-                    raw().getViewTreeObserver().removeOnGlobalLayoutListener(this);
-                }
-            }
-        });
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.READY, runnable);
+            return this;
+        }
 
+        onReady(runnable);
         return this;
     }
 
+    /**
+     * Runs a runnable when the view tree is rendered. At this point, all views in the tree
+     * have been drawn. The runnable is dropped if the view is detached from its window before
+     * that.
+     *
+     * @param runnable The Runnable to run.
+     *
+     * @return A handle to cancel the runnable.
+     *
+     * @throws IllegalArgumentException If the runnable passed in null
+     */
+    @NonNull
+    public Cancellable onReady(@NonNull Runnable runnable) {
+        requireNotNull(runnable);
+        requireMainThread();
+        return TreeCallbacks.add(raw(), TreeCallbacks.LAYOUT, runnable);
+    }
+
     /**
      * Gets the layout parameters of the view.
      *
@@ -631,6 +912,136 @@ public class AQ {
         return raw().getLayoutParams();
     }
 
+    /**
+     * Sets the layout parameters of the view. If the parameters returned by layoutParams()
+     * were edited in place, pass them back to this method to apply the changes.
+     *
+     * Note: Only passing back the view's own parameters is deferred by beginUpdate(). Setting
+     * other parameters always requests a layout right away.
+     *
+     * @param params The layout parameters to set.
+     * @return The current AQuery object.
+     *
+     * @throws IllegalArgumentException If params is null.
+     */
+    @NonNull
+    public AQ layoutParams(@NonNull ViewGroup.LayoutParams params) {
+        requireNotNull(params);
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.LAYOUT_PARAMS, params);
+            return this;
+        }
+
+        if (raw().getLayoutParams() == params) {
+            LayoutBatch.requestLayout(raw());
+        } else {
+            raw().setLayoutParams(params);
+        }
+        return this;
+    }
+
+    /**
+     * Starts a layout update. Until the update is committed, changes made through width(),
+     * height() and layoutParams() on any AQuery object don't request a layout right away.
+     * Instead, every affected view requests a single layout when the update is committed.
+     * Updates can be nested, only the outermost commit requests the layouts.
+     *
+     * Passing new parameters to layoutParams() isn't deferred, since the view requests a
+     * layout as soon as its parameters are replaced. Only the view's own parameters, edited in
+     * place and passed back, are.
+     *
+     * Note: Every call to this method must be matched by a call to commit(), even if the
+     * changes throw. Prefer batch(), which does so. An update that is still open once the UI
+     * thread gets back to its message loop is committed then, and its late commit() throws.
+     *
+     * <pre>
+     *     {@code
+     *     aq.beginUpdate();
+     *     try {
+     *         aq.width(w).height(h);
+     *     } finally {
+     *         aq.commit();
+     *     }
+     *     }
+     * </pre>
+     *
+     * @return The current AQuery object.
+     */
+    @NonNull
+    public AQ beginUpdate() {
+        LayoutBatch.begin();
+        return this;
+    }
+
+    /**
+     * Commits a layout update started by beginUpdate().
+     *
+     * @return The current AQuery object.
+     *
+     * @throws IllegalStateException If no update is in progress.
+     */
+    @NonNull
+    public AQ commit() {
+        LayoutBatch.commit();
+        return this;
+    }
+
+    /**
+     * Applies a batch of layout changes. Every view affected by the batch requests a single
+     * layout once the batch is done.
+     *
+     * <pre>
+     *     {@code
+     *     AQ(this, R.id.card).batch(card -> {
+     *         card.width(w).height(h);
+     *         card.find(R.id.image).width(w).height(h / 2);
+     *     });
+     *     }
+     * </pre>
+     *
+     * @param update The changes to apply.
+     * @return The current AQuery object.
+     *
+     * @throws IllegalArgumentException If update is null.
+     * @see #beginUpdate()
+     */
+    @NonNull
+    public AQ batch(@NonNull BatchUpdate update) {
+        requireNotNull(update);
+        LayoutBatch.begin();
+        try {
+            update.update(this);
+        } finally {
+            LayoutBatch.commit();
+        }
+        return this;
+    }
+
+    /**
+     * Returns an object that writes properties of the view at the next frame. Writes made
+     * before a frame are applied together, and only the last value written to a property is
+     * applied. It can be called from any thread. Setting a property directly through AQ drops
+     * its queued write.
+     *
+     * <pre>
+     *     {@code
+     *     aq.scheduleOnFrame().text(status).progress(done);
+     *     }
+     * </pre>
+     *
+     * @return The FrameUpdate object of the view.
+     * @see FrameUpdate
+     */
+    @NonNull
+    public FrameUpdate scheduleOnFrame() {
+        FrameUpdate update = frameUpdate;
+        if (update == null || update.view != raw) {
+            update = new FrameUpdate(raw);
+            frameUpdate = update;
+        }
+        return update;
+    }
+
     /**
      * Gets the visual x position of this view, in pixels.
      *
@@ -648,6 +1059,12 @@ public class AQ {
      */
     @NonNull
     public AQ x(float position) {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.X, position);
+            return this;
+        }
+
+        FrameScheduler.drop(raw(), FrameScheduler.X);
         raw().setX(position);
         return this;
     }
@@ -669,6 +1086,12 @@ public class AQ {
      */
     @NonNull
     public AQ y(float position) {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.Y, position);
+            return this;
+        }
+
+        FrameScheduler.drop(raw(), FrameScheduler.Y);
         raw().setY(position);
         return this;
     }
@@ -701,7 +1124,10 @@ public class AQ {
     public AQ z(float position) {
         if (Build.VERSION.SDK_INT < 21)
             throw new SDKVersionException();
-        else {
+        else if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.Z, position);
+            return this;
+        } else {
             raw().setZ(position);
             return this;
         }
@@ -724,6 +1150,12 @@ public class AQ {
      */
     @NonNull
     public AQ translationX(float offset) {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.TRANSLATION_X, offset);
+            return this;
+        }
+
+        FrameScheduler.drop(raw(), FrameScheduler.TRANSLATION_X);
         raw().setTranslationX(offset);
         return this;
     }
@@ -745,6 +1177,12 @@ public class AQ {
      */
     @NonNull
     public AQ translationY(float offset) {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.TRANSLATION_Y, offset);
+            return this;
+        }
+
+        FrameScheduler.drop(raw(), FrameScheduler.TRANSLATION_Y);
         raw().setTranslationY(offset);
         return this;
     }
@@ -774,7 +1212,10 @@ public class AQ {
     public AQ translationZ(float offset) {
         if (Build.VERSION.SDK_INT < 21)
             throw new SDKVersionException();
-        else {
+        else if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.TRANSLATION_Z, offset);
+            return this;
+        } else {
             raw().setTranslationZ(offset);
             return this;
         }
@@ -790,6 +1231,45 @@ public class AQ {
         return raw().animate();
     }
 
+    /**
+     * Animates properties of the view. The view is rendered into a hardware layer for the
+     * duration of the animation, so that it isn't redrawn on every frame, and its layer type is
+     * restored once the animation ends or is cancelled. The animation is started after setup.
+     *
+     * Note: Hardware layers are only used if the SDK version is at least 16.
+     *
+     * <pre>
+     *     {@code
+     *     aq.animate(new AnimatorSetup() {
+     *         public void setup(ViewPropertyAnimator animator) {
+     *             animator.translationY(0).alpha(1).setDuration(300);
+     *         }
+     *     });
+     *     }
+     * </pre>
+     *
+     * @param setup The object that sets up the animation.
+     * @return The current AQuery object
+     *
+     * @throws  IllegalArgumentException If setup is null
+     */
+    @NonNull
+    public AQ animate(@NonNull AnimatorSetup setup) {
+        requireNotNull(setup);
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.ANIMATOR, setup);
+            return this;
+        }
+
+        ViewPropertyAnimator animator = raw().animate();
+        if (Build.VERSION.SDK_INT >= 16) {
+            animator.withLayer();
+        }
+        setup.setup(animator);
+        animator.start();
+        return this;
+    }
+
     /**
      * Applies an animation on the view
      * 
@@ -800,6 +1280,11 @@ public class AQ {
      */
     public AQ animate(@NonNull Animation animation) {
         requireNotNull(animation);
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.ANIMATION, animation);
+            return this;
+        }
+
         raw().startAnimation(animation);
         return this;
     }
@@ -811,27 +1296,111 @@ public class AQ {
      */
     @NonNull
     public AQ bringToFront() {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.BRING_TO_FRONT, 0);
+            return this;
+        }
+
         raw().bringToFront();
         return this;
     }
 
     /**
-     * Returns the text of the TextView.
+     * Returns a copy of the text of the TextView. Use chars() to read the text without copying
+     * it.
      *
      * @throws  IllegalViewActionException If the view isn't a TextView.
      * @see IllegalViewActionException
      */
     @NonNull
     public String text() {
-        if (raw() instanceof EditText) {
-            return ((EditText) raw()).getText().toString();
-        } else if (raw() instanceof TextView) {
-            return (String) ((TextView) raw()).getText();
+        return chars().toString();
+    }
+
+    /**
+     * Returns the view as a TextView.
+     *
+     * @return The TextView.
+     *
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public TextView textView() {
+        if (raw() instanceof TextView) {
+            return (TextView) raw();
         } else {
             throw new IllegalViewActionException();
         }
     }
 
+    /**
+     * Returns the live text of the TextView, without copying it. For an EditText, it is the
+     * Editable that the user edits, so it shouldn't be kept: it changes with the field.
+     *
+     * @return The text of the TextView.
+     *
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public CharSequence chars() {
+        return textView().getText();
+    }
+
+    /**
+     * Returns the length of the text of the TextView.
+     *
+     * @return The length of the text.
+     *
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    public int textLength() {
+        return textView().length();
+    }
+
+    /**
+     * Checks if the text of the TextView contains the same characters as another text,
+     * without copying it. Spans and styles are ignored.
+     *
+     * @param text The text to compare with.
+     * @return True if both texts contain the same characters, false otherwise.
+     *
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    public boolean textEquals(CharSequence text) {
+        return Chars.equals(chars(), text);
+    }
+
+    /**
+     * Checks if the text of the TextView contains another text, without copying it.
+     *
+     * @param text The text to search for.
+     * @return True if the text of the TextView contains text, false otherwise.
+     *
+     * @throws  IllegalArgumentException If text is null.
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    public boolean textContains(@NonNull CharSequence text) {
+        return Chars.contains(chars(), text);
+    }
+
+    /**
+     * Parses the text of the TextView as a number in base 10, without copying it.
+     *
+     * @param fallback The value to return if the text isn't a number.
+     * @return The parsed number, or fallback if the text isn't a number.
+     *
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    public int textInt(int fallback) {
+        return Chars.parseInt(chars(), fallback);
+    }
+
     /**
      * Sets the text of the view.
      *
@@ -843,9 +1412,19 @@ public class AQ {
      */
     @NonNull
     public AQ text(String text) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof TextView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.TEXT, text, null, 0, 0, 0);
+            return this;
+        }
+
         if (raw() instanceof EditText) {
+            FrameScheduler.drop(raw(), FrameScheduler.TEXT);
             ((EditText) raw()).setText(text);
         } else if (raw() instanceof TextView) {
+            AsyncText.cancel((TextView) raw());
+            FrameScheduler.drop(raw(), FrameScheduler.TEXT);
             ((TextView) raw()).setText(text);
         } else {
             throw new IllegalViewActionException();
@@ -854,6 +1433,126 @@ public class AQ {
         return this;
     }
 
+    /**
+     * Sets the text of the view, measuring it on a background thread. The text is set on the
+     * UI thread once it is measured. Measured texts are cached, so setting the same text again
+     * on a view with the same text attributes skips measuring.
+     *
+     * Note: The text is set right away on an EditText or if the SDK version is less than P.
+     *
+     * @param  text The text to set.
+     * @return Current AQuery object
+     *
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     * @see TextLayoutCache
+     */
+    @NonNull
+    public AQ textAsync(CharSequence text) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof TextView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.TEXT_ASYNC, text);
+            return this;
+        }
+
+        if (raw() instanceof TextView) {
+            FrameScheduler.drop(raw(), FrameScheduler.TEXT);
+        }
+
+        if (raw() instanceof EditText) {
+            ((EditText) raw()).setText(text);
+        } else if (raw() instanceof TextView) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && text != null) {
+                AsyncText.set((TextView) raw(), text);
+            } else {
+                AsyncText.cancel((TextView) raw());
+                ((TextView) raw()).setText(text);
+            }
+        } else {
+            throw new IllegalViewActionException();
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets the validation rules of the text field, replacing its previous rules. The rules are
+     * checked against the live text of the field when valid() is called, and the result is kept
+     * until the text changes.
+     *
+     * Note: Rules added to the chain afterwards are only checked once the text changes.
+     *
+     * @param rules The rules of the field.
+     * @return The current AQuery object
+     *
+     * @throws IllegalArgumentException If rules is null.
+     *
+     * @throws IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     * @see RuleChain
+     */
+    @NonNull
+    public AQ rules(@NonNull RuleChain rules) {
+        requireNotNull(rules);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof TextView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.RULES, rules);
+            return this;
+        }
+
+        FieldValidator.set(textView(), rules, null);
+        return this;
+    }
+
+    /**
+     * Sets the validation rules of the text field, replacing its previous rules, and validates
+     * the field in the background. Every time the text changes, a copy of it is checked on a
+     * background thread and the listener is called with the result on the UI thread. A check
+     * that is still running when the text changes again is interrupted and stops before its
+     * next rule. The field is also validated right away.
+     *
+     * Note: The rules are run on a background thread, so custom rules must be thread safe.
+     *
+     * @param rules The rules of the field.
+     * @param listener The listener to call with the results.
+     * @return The current AQuery object
+     *
+     * @throws IllegalArgumentException If rules or listener is null.
+     *
+     * @throws IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     * @see RuleChain
+     */
+    @NonNull
+    public AQ rulesAsync(@NonNull RuleChain rules, @NonNull ValidationListener listener) {
+        requireNotNull(rules, listener);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof TextView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.RULES, rules, listener, 0, 0, 0);
+            return this;
+        }
+
+        FieldValidator.set(textView(), rules, listener);
+        return this;
+    }
+
+    /**
+     * Checks the text of the field against the rules set with rules(). The result is cached
+     * until the text changes, so checking an unchanged field is free.
+     *
+     * @return True if the text passes the rules or the field has no rules, false otherwise.
+     *
+     * @throws IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    public boolean valid() {
+        requireMainThread();
+        return FieldValidator.valid(textView());
+    }
+
     /**
      * Sets the text size of the View
      *
@@ -864,6 +1563,13 @@ public class AQ {
      * @see IllegalViewActionException
      */
     public AQ textSize(float textSize) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof TextView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.TEXT_SIZE, textSize);
+            return this;
+        }
+
         if (raw() instanceof EditText) {
             ((EditText) raw()).setTextSize(textSize);
         } else if (raw() instanceof TextView) {
@@ -894,7 +1600,7 @@ public class AQ {
     }
 
     /**
-     * Sets the typeface of the view
+     * Sets the typeface of the view. Typefaces are loaded once and cached by path.
      *
      * @param path The path to the font file
      * @return The current AQuery object
@@ -903,10 +1609,11 @@ public class AQ {
      *
      * @throws IllegalViewActionException If the view isn't a TextView or EditText
      * @see IllegalViewActionException
+     * @see TypefaceCache
      */
     public AQ typeFace(@NonNull String path) {
         requireNotNull(path);
-        Typeface t = Typeface.createFromAsset(context().getAssets(), path);
+        Typeface t = TypefaceCache.get(context(), path);
         return typeFace(t);
     }
 
@@ -923,6 +1630,13 @@ public class AQ {
      */
     public AQ typeFace(@NonNull Typeface typeface) {
         requireNotNull(typeface);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof TextView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.TYPEFACE, typeface);
+            return this;
+        }
+
         if (raw() instanceof EditText) {
             ((EditText) raw()).setTypeface(typeface);
         } else if (raw() instanceof TextView) {
@@ -963,14 +1677,99 @@ public class AQ {
      */
     @NonNull
     public AQ bitmap(Bitmap bitmap) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ImageView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.BITMAP, bitmap);
+            return this;
+        }
+
         try {
-            ((ImageView) raw()).setImageBitmap(bitmap);
+            ImageLoader.cancel((ImageView) raw());
+            ImageLoader.set((ImageView) raw(), bitmap, false);
             return this;
         } catch (ClassCastException e) {
             throw new IllegalViewActionException();
         }
     }
 
+    /**
+     * Decodes an image file on a background thread and sets it to an ImageView. The image is
+     * downsampled to the size of the ImageView. If the view isn't laid out yet, decoding
+     * starts once it is. Decoded images are cached, see {@link BitmapCache}.
+     *
+     * Setting another image on the ImageView cancels the pending one.
+     *
+     * @param  file The image file.
+     * @return AQ Current AQuery object
+     *
+     * @throws IllegalArgumentException If file is null.
+     *
+     * @throws  IllegalViewActionException If the view isn't an ImageView.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQ bitmap(@NonNull File file) {
+        requireNotNull(file);
+        return bitmap(ImageSource.file(file));
+    }
+
+    /**
+     * Decodes an image stream on a background thread and sets it to an ImageView. The image is
+     * downsampled to the size of the ImageView. If the view isn't laid out yet, decoding
+     * starts once it is. The stream is closed once it is read, or once the image is
+     * cancelled.
+     *
+     * Setting another image on the ImageView cancels the pending one.
+     *
+     * @param  stream The image stream.
+     * @return AQ Current AQuery object
+     *
+     * @throws IllegalArgumentException If stream is null.
+     *
+     * @throws  IllegalViewActionException If the view isn't an ImageView.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQ bitmap(@NonNull InputStream stream) {
+        requireNotNull(stream);
+        return bitmap(ImageSource.stream(stream));
+    }
+
+    /**
+     * Decodes an image resource on a background thread and sets it to an ImageView. The image
+     * is downsampled to the size of the ImageView. If the view isn't laid out yet, decoding
+     * starts once it is. Decoded images are cached, see {@link BitmapCache}.
+     *
+     * Setting another image on the ImageView cancels the pending one.
+     *
+     * @param  resId The resource id of the image.
+     * @return AQ Current AQuery object
+     *
+     * @throws  IllegalViewActionException If the view isn't an ImageView.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQ bitmap(int resId) {
+        return bitmap(ImageSource.resource(context(), resId));
+    }
+
+    AQ bitmap(ImageSource source) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof ImageView))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.IMAGE, source);
+            return this;
+        }
+
+        if (raw() instanceof ImageView) {
+            ImageLoader.load((ImageView) raw(), source);
+            return this;
+        } else {
+            throw new IllegalViewActionException();
+        }
+    }
+
     /**
      * Sets a drawable as a view's background
      *
@@ -982,6 +1781,11 @@ public class AQ {
     @NonNull
     public AQ background(@NonNull Drawable background) {
         requireNotNull(background);
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.BACKGROUND, background);
+            return this;
+        }
+
         raw().setBackground(background);
         return this;
     }
@@ -998,6 +1802,13 @@ public class AQ {
      */
     @NonNull
     public AQ max(int max) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof SeekBar))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.MAX, max);
+            return this;
+        }
+
         if (raw() instanceof SeekBar) {
             ((SeekBar) raw()).setMax(max);
             return this;
@@ -1036,6 +1847,15 @@ public class AQ {
      */
     @NonNull
     public AQ min(int min) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof SeekBar))
+                throw new IllegalViewActionException();
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O)
+                throw new SDKVersionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.MIN, min);
+            return this;
+        }
+
         if (raw() instanceof SeekBar) {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
                 ((SeekBar) raw()).setMin(min);
@@ -1103,8 +1923,16 @@ public class AQ {
      */
     @NonNull
     public AQ progress(int progress, boolean animate) {
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof SeekBar))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.PROGRESS, null, null, progress, animate ? 1 : 0, 0);
+            return this;
+        }
+
         if (raw() instanceof SeekBar) {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                FrameScheduler.drop(raw(), FrameScheduler.PROGRESS);
                 ((SeekBar) raw()).setProgress(progress, animate);
             } else {
                 throw new SDKVersionException();
@@ -1131,10 +1959,8 @@ public class AQ {
     }
 
     /**
-     * Sets a listener for when the user has stopped a touch gesture
-     *
-     * Note: Do not use this method in conjunction with the methods startTrackingTouch() and
-     * progressChanged(). If you want to listen to multiple seek bar events, use seekBarChanged().
+     * Sets a listener for when the user has stopped a touch gesture. It replaces the previous
+     * listener set with this method, but not the other seek bar listeners.
      *
      * @param eventListener The listener to set
      * @return The current AQuery object
@@ -1146,32 +1972,20 @@ public class AQ {
      */
     public AQ stopTrackingTouch(@NonNull final EventListener eventListener) {
         requireNotNull(eventListener);
-        if (raw() instanceof SeekBar) {
-            ((SeekBar) raw()).setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
-                @Override
-                public void onProgressChanged(SeekBar seekBar, int i, boolean b) {
-                }
-
-                @Override
-                public void onStartTrackingTouch(SeekBar seekBar) {
-                }
-
-                @Override
-                public void onStopTrackingTouch(SeekBar seekBar) {
-                    eventListener.onEvent(new AQ(seekBar));
-                }
-            });
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof SeekBar))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.STOP_TRACKING, eventListener);
             return this;
-        } else {
-            throw new IllegalViewActionException();
         }
+
+        seekBarListeners().stop = eventListener;
+        return this;
     }
 
     /**
-     * Sets a listener for when the user has started a touch gesture
-     *
-     * Note: Do not use this method in conjunction with the methods stopTrackingTouch() and
-     * progressChanged(). If you want to listen to multiple seek bar events, use seekBarChanged().
+     * Sets a listener for when the user has started a touch gesture. It replaces the previous
+     * listener set with this method, but not the other seek bar listeners.
      *
      * @param eventListener The listener to set
      * @return The current AQuery object
@@ -1183,32 +1997,21 @@ public class AQ {
      */
     public AQ startTrackingTouch(@NonNull final EventListener eventListener) {
         requireNotNull(eventListener);
-        if (raw() instanceof SeekBar) {
-            ((SeekBar) raw()).setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
-                @Override
-                public void onProgressChanged(SeekBar seekBar, int i, boolean b) {
-                }
-
-                @Override
-                public void onStartTrackingTouch(SeekBar seekBar) {
-                    eventListener.onEvent(new AQ(seekBar));
-                }
-
-                @Override
-                public void onStopTrackingTouch(SeekBar seekBar) {
-                }
-            });
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof SeekBar))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.START_TRACKING, eventListener);
             return this;
-        } else {
-            throw new IllegalViewActionException();
         }
+
+        seekBarListeners().start = eventListener;
+        return this;
     }
 
     /**
-     * Sets a listener for when the seek bar's progress has changed
-     *
-     * Note: Do not use this method in conjunction with the methods stopTrackingTouch() and
-     * startTrackingTouch(). If you want to listen to multiple seek bar events, use seekBarChanged().
+     * Sets a listener for when the seek bar's progress has changed. It replaces the previous
+     * progress listener, including the throttled and debounced ones, but not the other seek bar
+     * listeners.
      *
      * @param listener The listener to set
      * @return The current AQuery object
@@ -1220,46 +2023,132 @@ public class AQ {
      */
     public AQ progressChanged(@NonNull final SeekBarProgressChangedListener listener) {
         requireNotNull(listener);
-        if (raw() instanceof SeekBar) {
-            ((SeekBar) raw()).setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
-                @Override
-                public void onProgressChanged(SeekBar seekBar, int i, boolean b) {
-                    listener.onProgressChanged(new AQ(seekBar), i, b);
-                }
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof SeekBar))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.PROGRESS_CHANGED, listener);
+            return this;
+        }
 
-                @Override
-                public void onStartTrackingTouch(SeekBar seekBar) {
-                }
+        seekBarListeners().setProgress(listener);
+        return this;
+    }
 
-                @Override
-                public void onStopTrackingTouch(SeekBar seekBar) {
-                }
-            });
+    /**
+     * Sets a listener for seek bar change events. It replaces the previous listener set with
+     * this method or its throttled and debounced variants, but not the listeners set with
+     * stopTrackingTouch(), startTrackingTouch() and progressChanged().
+     *
+     * @param listener The listener to set
+     * @return The current AQuery object
+     *
+     * @throws IllegalViewActionException If the view is not a SeekBar
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null
+     */
+    public AQ seekBarChanged(@NonNull final SeekBar.OnSeekBarChangeListener listener) {
+        requireNotNull(listener);
+        if (MainThreadQueue.marshals()) {
+            if (!(raw() instanceof SeekBar))
+                throw new IllegalViewActionException();
+            MainThreadQueue.post(raw(), MainThreadQueue.SEEK_BAR_CHANGED, listener);
             return this;
-        } else {
-            throw new IllegalViewActionException();
         }
+
+        seekBarListeners().setChanges(listener);
+        return this;
+    }
+
+    /**
+     * Sets a listener for when the seek bar's progress has changed, that is called at most once
+     * per interval. The last progress is always delivered, at the latest when the interval has
+     * elapsed or when the user stops touching the seek bar. It replaces the previous progress
+     * listener.
+     *
+     * @param listener The listener to set
+     * @param interval The minimum time between two calls, in milliseconds
+     * @return The current AQuery object
+     *
+     * @throws IllegalViewActionException If the view is not a SeekBar
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null or the interval is negative
+     */
+    public AQ progressChangedThrottled(@NonNull SeekBarProgressChangedListener listener, long interval) {
+        requireNotNull(listener);
+        return progressChanged(new RateLimiter.Progress(listener, RateLimiter.THROTTLE, interval));
     }
 
     /**
-     * Sets a listener for seek bar change events
+     * Sets a listener for when the seek bar's progress has changed, that is called once the
+     * progress hasn't changed for an interval, or when the user stops touching the seek bar.
+     * It replaces the previous progress listener.
      *
-     * Note: Do not use this method in conjunction with the methods stopTrackingTouch(),
-     * startTrackingTouch() and progressChanged().
+     * @param listener The listener to set
+     * @param interval The time without changes to wait for, in milliseconds
+     * @return The current AQuery object
+     *
+     * @throws IllegalViewActionException If the view is not a SeekBar
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null or the interval is negative
+     */
+    public AQ progressChangedDebounced(@NonNull SeekBarProgressChangedListener listener, long interval) {
+        requireNotNull(listener);
+        return progressChanged(new RateLimiter.Progress(listener, RateLimiter.DEBOUNCE, interval));
+    }
+
+    /**
+     * Sets a listener for seek bar change events, whose onProgressChanged() is called at most
+     * once per interval. The last progress is always delivered, at the latest when the interval
+     * has elapsed or before onStopTrackingTouch() is called. It replaces the previous listener
+     * set with seekBarChanged().
      *
      * @param listener The listener to set
+     * @param interval The minimum time between two progress changes, in milliseconds
      * @return The current AQuery object
      *
      * @throws IllegalViewActionException If the view is not a SeekBar
      * @see IllegalViewActionException
      *
-     * @throws IllegalArgumentException If the listener is null
+     * @throws IllegalArgumentException If the listener is null or the interval is negative
      */
-    public AQ seekBarChanged(@NonNull final SeekBar.OnSeekBarChangeListener listener) {
+    public AQ seekBarChangedThrottled(@NonNull SeekBar.OnSeekBarChangeListener listener, long interval) {
         requireNotNull(listener);
+        return seekBarChanged(new RateLimiter.Changes(listener, RateLimiter.THROTTLE, interval));
+    }
+
+    /**
+     * Sets a listener for seek bar change events, whose onProgressChanged() is called once the
+     * progress hasn't changed for an interval, or before onStopTrackingTouch() is called. It
+     * replaces the previous listener set with seekBarChanged().
+     *
+     * @param listener The listener to set
+     * @param interval The time without changes to wait for, in milliseconds
+     * @return The current AQuery object
+     *
+     * @throws IllegalViewActionException If the view is not a SeekBar
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null or the interval is negative
+     */
+    public AQ seekBarChangedDebounced(@NonNull SeekBar.OnSeekBarChangeListener listener, long interval) {
+        requireNotNull(listener);
+        return seekBarChanged(new RateLimiter.Changes(listener, RateLimiter.DEBOUNCE, interval));
+    }
+
+    /**
+     * Rejects the calls that can't be marshaled to the main thread, since they return a result.
+     */
+    private static void requireMainThread() {
+        if (MainThreadQueue.marshals())
+            throw new IllegalStateException("This method must be called on the main thread.");
+    }
+
+    private SeekBarListeners seekBarListeners() {
         if (raw() instanceof SeekBar) {
-            ((SeekBar) raw()).setOnSeekBarChangeListener(listener);
-            return this;
+            return SeekBarListeners.of((SeekBar) raw());
         } else {
             throw new IllegalViewActionException();
         }
@@ -1282,9 +2171,14 @@ public class AQ {
      */
     @NonNull
     public AQ width(int width) {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.WIDTH, width);
+            return this;
+        }
+
         ViewGroup.LayoutParams params = raw().getLayoutParams();
         params.width = width;
-        raw().requestLayout();
+        LayoutBatch.requestLayout(raw());
         return this;
     }
 
@@ -1305,21 +2199,29 @@ public class AQ {
      */
     @NonNull
     public AQ height(int height) {
+        if (MainThreadQueue.marshals()) {
+            MainThreadQueue.post(raw(), MainThreadQueue.HEIGHT, height);
+            return this;
+        }
+
         ViewGroup.LayoutParams params = raw().getLayoutParams();
         params.height = height;
-        raw().requestLayout();
+        LayoutBatch.requestLayout(raw());
         return this;
     }
 
 
     /**
      * Inflates a layout. Note that this method doesn't attach the layout to its parent.
+     * If pooling is enabled for the layout, a pooled instance is returned if available.
      *
      * @param context The required context.
      * @param id The layout's Id.
      * @param parent The layout's parent.
      * @return An AQuery object containing the inflated layout.
      *
+     * @see ViewPool
+     *
      * @throws  IllegalArgumentException If the context or parent is null.
      */
     @NonNull
@@ -1330,12 +2232,15 @@ public class AQ {
 
     /**
      * Inflates a layout. Note that this method doesn't attach the layout to its parent.
+     * If pooling is enabled for the layout, a pooled instance is returned if available.
      *
      * @param context The required context.
      * @param id The layout's Id.
      * @param parent The layout's parent.
      * @return An AQuery object containing the inflated layout.
      *
+     * @see ViewPool
+     *
      * @throws  IllegalArgumentException If the context or parent is null or
      * the parent view is a ViewGroup.
      */
@@ -1358,8 +2263,18 @@ public class AQ {
      */
     @NonNull
     public static AQ inflate(Context context, int id, ViewGroup parent, boolean attachToParent) {
+        if (!attachToParent && ViewPool.enabled(id)) {
+            View pooled = ViewPool.obtain(context, id);
+            if (pooled != null) {
+                return new AQ(pooled);
+            }
+        }
+
         LayoutInflater inflater = LayoutInflater.from(context);
         View layout = inflater.inflate(id, parent, attachToParent);
+        if (!attachToParent && ViewPool.enabled(id)) {
+            ViewPool.track(layout, context, id);
+        }
         return new AQ(layout);
     }
 
@@ -1378,14 +2293,128 @@ public class AQ {
     @NonNull
     public static AQ inflate(Context context, int id, AQ parent, boolean attachToParent) {
         try {
-            LayoutInflater inflater = LayoutInflater.from(context);
-            View layout = inflater.inflate(id, (ViewGroup) parent.raw(), attachToParent);
-            return new AQ(layout);
+            return inflate(context, id, (ViewGroup) parent.raw(), attachToParent);
         } catch (ClassCastException e) {
             throw new IllegalArgumentException("The parent view isn't a ViewGroup.");
         }
     }
 
+    /**
+     * Returns an inflated layout to its {@link ViewPool}, so that a later call to inflate()
+     * can reuse it. The layout is removed from its parent, and the listeners of the layout and
+     * its descendants are removed. Other state, such as texts and visibility, is kept.
+     *
+     * @param layout The AQuery object containing the layout.
+     * @return True if the layout was returned to its pool, false if pooling isn't enabled for
+     * it or its pool is full.
+     *
+     * @throws  IllegalArgumentException If layout is null.
+     */
+    public static boolean recycle(@NonNull AQ layout) {
+        requireNotNull(layout);
+        return ViewPool.recycle(layout.raw());
+    }
+
+    /**
+     * Inflates a layout on a background thread. The inflated layout is delivered to the
+     * callback on the UI thread. Note that this method doesn't attach the layout to its parent.
+     *
+     * If the layout contains views that can't be created off the UI thread, it is inflated
+     * on the UI thread instead.
+     *
+     * <pre>
+     *     {@code
+     *     AQ.inflateAsync(this, R.layout.item, parent, item -> parent.append(item));
+     *     }
+     * </pre>
+     *
+     * @param context The required context.
+     * @param id The layout's Id.
+     * @param parent The layout's parent.
+     * @param callback The listener to call with the inflated layout.
+     *
+     * @throws  IllegalArgumentException If the context, parent or callback is null.
+     */
+    public static void inflateAsync(@NonNull Context context, int id, @NonNull ViewGroup parent,
+                                    @NonNull EventListener callback) {
+        requireNotNull(context, parent, callback);
+        AsyncInflater.inflate(context, id, parent, callback);
+    }
+
+    /**
+     * Inflates a layout on a background thread. The inflated layout is delivered to the
+     * callback on the UI thread. Note that this method doesn't attach the layout to its parent.
+     *
+     * If the layout contains views that can't be created off the UI thread, it is inflated
+     * on the UI thread instead.
+     *
+     * @param context The required context.
+     * @param id The layout's Id.
+     * @param parent The AQuery object containing the layout's parent.
+     * @param callback The listener to call with the inflated layout.
+     *
+     * @throws  IllegalArgumentException If the context, parent or callback is null or
+     * the parent view isn't a ViewGroup.
+     */
+    public static void inflateAsync(@NonNull Context context, int id, @NonNull AQ parent,
+                                    @NonNull EventListener callback) {
+        requireNotNull(context, parent, callback);
+        if (!(parent.raw() instanceof ViewGroup))
+            throw new IllegalArgumentException("The parent view isn't a ViewGroup.");
+
+        AsyncInflater.inflate(context, id, (ViewGroup) parent.raw(), callback);
+    }
+
+    /**
+     * Enables or disables marshaling of setter calls made on other threads. When enabled, the
+     * calls to the methods that change the view (its properties, children, listeners, images,
+     * animations and validation rules) made on a thread other than the main thread don't touch
+     * the view, but are queued and applied in order on the main thread. Queuing never blocks
+     * the calling thread. Layout updates started off the main thread don't defer anything, the
+     * queued changes request their layouts when they are applied.
+     *
+     * The methods that return a result computed on the main thread, onPreDraw(), onReady() and
+     * valid(), throw an IllegalStateException when they are called on another thread while
+     * marshaling is enabled.
+     *
+     * Note: The type of the view and the SDK version are checked when the call is made, but
+     * other errors are thrown on the main thread, when the call is applied.
+     *
+     * @param enabled True to marshal calls made on other threads, false otherwise.
+     */
+    public static void marshalToMainThread(boolean enabled) {
+        MainThreadQueue.enabled(enabled);
+    }
+
+    /**
+     * Enables a disk cache for the images loaded by bitmap(File) and bitmap(int). Decoded images
+     * are stored downsampled in the app's cache directory, so they don't have to be decoded and
+     * scaled again, even after the app is restarted.
+     *
+     * @param context The required context.
+     * @param maxSize The maximum size of the disk cache, in bytes.
+     *
+     * @throws IllegalArgumentException If context is null or maxSize isn't positive.
+     * @see DiskCache
+     */
+    public static void imageDiskCache(@NonNull Context context, long maxSize) {
+        requireNotNull(context);
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("maxSize should be positive");
+
+        ImageLoader.diskCache(new File(context.getCacheDir(), "aquery-images"), maxSize);
+    }
+
+    /**
+     * Removes all the images stored by the disk cache. The files are deleted on a background
+     * thread.
+     *
+     * @see #imageDiskCache(Context, long)
+     */
+    public static void clearImageDiskCache() {
+        ImageLoader.clearDiskCache();
+    }
+
     /**
      * Displays a toast message. Note that the toast's duration is Toast.LENGTH_SHORT. Call
      * toastLong() to display a toast with duration Toast.LENGTH_LONG.
@@ -1422,8 +2451,23 @@ public class AQ {
      * @return The number of pixels corresponding to a DP value.
      */
     public static int dpToPx(Context context, int dp) {
-        DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
-        return Math.round(dp * (displayMetrics.xdpi / DisplayMetrics.DENSITY_DEFAULT));
+        return Metrics.dpToPx(context, dp);
+    }
+
+    /**
+     * Gets the numbers of pixels corresponding to DP values, in a single pass.
+     *
+     * @param context Required context.
+     * @param dp The DP values to convert.
+     * @return The numbers of pixels corresponding to the DP values.
+     *
+     * @throws  IllegalArgumentException If dp is null.
+     */
+    public static int[] dpToPx(Context context, int[] dp) {
+        requireNotNull(dp);
+        int[] px = new int[dp.length];
+        Metrics.dpToPx(context, dp, px);
+        return px;
     }
 
     /**
@@ -1434,8 +2478,23 @@ public class AQ {
      * @return The number of DP pixels corresponding to a pixel value.
      */
     public static int pxToDp(Context context, int px) {
-        DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
-        return Math.round(px / (displayMetrics.xdpi / DisplayMetrics.DENSITY_DEFAULT));
+        return Metrics.pxToDp(context, px);
+    }
+
+    /**
+     * Gets the numbers of DP pixels corresponding to pixel values, in a single pass.
+     *
+     * @param context Required context.
+     * @param px The pixel values to convert.
+     * @return The numbers of DP pixels corresponding to the pixel values.
+     *
+     * @throws  IllegalArgumentException If px is null.
+     */
+    public static int[] pxToDp(Context context, int[] px) {
+        requireNotNull(px);
+        int[] dp = new int[px.length];
+        Metrics.pxToDp(context, px, dp);
+        return dp;
     }
 
     /**
@@ -1446,8 +2505,7 @@ public class AQ {
      * @return The number of DP pixels corresponding to a pixel value.
      */
     public static int spToPx(Context context, float sp) {
-        int px = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, sp, context.getResources().getDisplayMetrics());
-        return px;
+        return Metrics.spToPx(context, sp);
     }
 
     /**
@@ -1460,9 +2518,7 @@ public class AQ {
      */
     public static int getScreenHeight(Context context) {
         try {
-            DisplayMetrics m = new DisplayMetrics();
-            ((Activity) context).getWindowManager().getDefaultDisplay().getRealMetrics(m);
-            return m.heightPixels;
+            return Metrics.screenHeight((Activity) context);
         } catch (ClassCastException e) {
             throw new IllegalArgumentException("Context is not an Activity");
         }
@@ -1478,22 +2534,41 @@ public class AQ {
      */
     public static int getScreenWidth(Context context) {
         try {
-            DisplayMetrics m = new DisplayMetrics();
-            ((Activity) context).getWindowManager().getDefaultDisplay().getRealMetrics(m);
-            return m.widthPixels;
+            return Metrics.screenWidth((Activity) context);
         } catch (ClassCastException e) {
             throw new IllegalArgumentException("Context is not an Activity");
         }
     }
 
     /**
-     * Returns a {@link Validator} object.
+     * Returns the shared {@link Validator} object.
      *
      * @return The {@link Validator} object.
      */
     @NonNull
     public static Validator validator() {
-        return new Validator();
+        return Validator.getInstance();
+    }
+
+    /**
+     * Points the AQuery object at another view. Used by flyweight AQuery objects that are
+     * reused while iterating over views.
+     *
+     * @param raw The view to point at
+     * @return The current AQuery object
+     */
+    AQ rebind(View raw) {
+        this.raw = raw;
+        this.context = raw.getContext();
+        return this;
+    }
+
+    /**
+     * Releases the view of a flyweight AQuery object once it is no longer used.
+     */
+    void unbind() {
+        this.raw = null;
+        this.context = null;
     }
 
     /**
@@ -0,0 +1,969 @@
+package com.mzaart.aquery;
+
+import android.graphics.Bitmap;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.SeekBar;
+
+import com.mzaart.aquery.exceptions.IllegalViewActionException;
+import com.mzaart.aquery.exceptions.SDKVersionException;
+import com.mzaart.aquery.interfaces.AnimatorSetup;
+import com.mzaart.aquery.interfaces.ChildVisitor;
+import com.mzaart.aquery.interfaces.EventListener;
+import com.mzaart.aquery.interfaces.SeekBarProgressChangedListener;
+import com.mzaart.aquery.interfaces.ValidationListener;
+import com.mzaart.aquery.utils.RuleChain;
+import com.mzaart.aquery.utils.TypefaceCache;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * A set of views that can be manipulated at once, similar to a JQuery selection.
+ *
+ * Every setter is applied to all the views of the set in a single pass. The views are kept in
+ * an array and a single AQuery object is reused to apply the setters, so no AQuery object is
+ * allocated per view.
+ *
+ * Setters whose argument can only belong to a single view have no set counterpart: layout
+ * params, Animation objects, streams and appended children. Neither have preDraw() and
+ * ready(), whose runnable would run once per view. Use each() to apply them per view.
+ *
+ * <pre>
+ *     {@code
+ *     AQ(this).findAll(R.id.title, R.id.subtitle, R.id.icon).visibility(View.GONE);
+ *     }
+ * </pre>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class AQSet {
+
+    private View[] views;
+    private int size;
+
+    private AQ cursor;
+
+    /**
+     * Instantiates a set from views.
+     *
+     * @param views The views of the set.
+     *
+     * @throws  IllegalArgumentException If any of the views is null.
+     */
+    public AQSet(@NonNull View... views) {
+        for (View v : views) {
+            if (v == null)
+                throw new IllegalArgumentException("Parameter can't be null");
+        }
+
+        this.views = views.clone();
+        this.size = views.length;
+    }
+
+    AQSet(int capacity) {
+        this.views = new View[Math.max(capacity, 1)];
+    }
+
+    void add(View view) {
+        if (size == views.length) {
+            views = Arrays.copyOf(views, size * 2);
+        }
+        views[size++] = view;
+    }
+
+    /**
+     * Adds the descendants of a view, including the view itself, whose tag equals the given tag.
+     */
+    void addByTag(View view, Object tag) {
+        if (tag.equals(view.getTag())) {
+            add(view);
+        }
+
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            int count = group.getChildCount();
+            for (int i = 0; i < count; i++) {
+                addByTag(group.getChildAt(i), tag);
+            }
+        }
+    }
+
+    /**
+     * Adds the descendants of a view, including the view itself, that are instances of a class.
+     */
+    void addByClass(View view, Class<? extends View> type) {
+        if (type.isInstance(view)) {
+            add(view);
+        }
+
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            int count = group.getChildCount();
+            for (int i = 0; i < count; i++) {
+                addByClass(group.getChildAt(i), type);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of views in the set.
+     *
+     * @return The number of views in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the set is empty.
+     *
+     * @return True if the set doesn't contain any view, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the view at the specified index.
+     *
+     * @param index The index of the view.
+     * @return The view at the specified index.
+     *
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    @NonNull
+    public View raw(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        return views[index];
+    }
+
+    /**
+     * Returns an AQuery object containing the view at the specified index.
+     *
+     * @param index The index of the view.
+     * @return An AQuery object containing the view at the specified index.
+     *
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    @NonNull
+    public AQ get(int index) {
+        return new AQ(raw(index));
+    }
+
+    /**
+     * Visits the views of the set. A single AQuery object is reused for all the views, so the
+     * visitor shouldn't keep it.
+     *
+     * @param visitor The visitor to call for every view.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If the visitor is null.
+     */
+    @NonNull
+    public AQSet each(@NonNull ChildVisitor visitor) {
+        if (visitor == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        for (int i = 0; i < size; i++) {
+            visitor.visit(at(i), i);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the visibility of the views.
+     *
+     * @param visibility The visibility constant.
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet visibility(int visibility) {
+        for (int i = 0; i < size; i++) {
+            at(i).visibility(visibility);
+        }
+        return this;
+    }
+
+    /**
+     * Removes the views from their parents.
+     *
+     * @throws  RuntimeException If a View can't be removed.
+     * @see  RuntimeException
+     */
+    public void remove() {
+        for (int i = 0; i < size; i++) {
+            at(i).remove();
+        }
+    }
+
+    /**
+     * Removes all children of the views.
+     *
+     * @return The current set.
+     *
+     * @throws  IllegalViewActionException If a view isn't a ViewGroup.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet removeAllViews() {
+        for (int i = 0; i < size; i++) {
+            at(i).removeAllViews();
+        }
+        return this;
+    }
+
+    /**
+     * Brings the views to the front of their parents' hierarchies, in the order of the set.
+     *
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet bringToFront() {
+        for (int i = 0; i < size; i++) {
+            at(i).bringToFront();
+        }
+        return this;
+    }
+
+    /**
+     * Sets an on-click listener on the views. All the views share a single View.OnClickListener.
+     *
+     * @param onClickListener The onClickListener to be executed when a view is clicked.
+     * @return The current set.
+     *
+     * @throws  IllegalArgumentException If the onClickListener passed is null.
+     */
+    @NonNull
+    public AQSet click(@NonNull EventListener onClickListener) {
+        for (int i = 0; i < size; i++) {
+            at(i).click(onClickListener);
+        }
+        return this;
+    }
+
+    /**
+     * Sets an on-click listener on the views that is executed at most once per interval for
+     * every view, see {@link AQ#clickThrottled(EventListener, long)}.
+     *
+     * @param onClickListener The onClickListener to be executed when a view is clicked.
+     * @param interval The minimum time between two executions, in milliseconds.
+     * @return The current set.
+     *
+     * @throws  IllegalArgumentException If the onClickListener passed is null or the interval
+     * is negative.
+     */
+    @NonNull
+    public AQSet clickThrottled(@NonNull EventListener onClickListener, long interval) {
+        for (int i = 0; i < size; i++) {
+            at(i).clickThrottled(onClickListener, interval);
+        }
+        return this;
+    }
+
+    /**
+     * Sets an on-click listener on the views that is executed once a view hasn't been clicked
+     * for an interval, see {@link AQ#clickDebounced(EventListener, long)}.
+     *
+     * @param onClickListener The onClickListener to be executed when a view is clicked.
+     * @param interval The time without clicks to wait for, in milliseconds.
+     * @return The current set.
+     *
+     * @throws  IllegalArgumentException If the onClickListener passed is null or the interval
+     * is negative.
+     */
+    @NonNull
+    public AQSet clickDebounced(@NonNull EventListener onClickListener, long interval) {
+        for (int i = 0; i < size; i++) {
+            at(i).clickDebounced(onClickListener, interval);
+        }
+        return this;
+    }
+
+    /**
+     * Performs a click on the views, in the order of the set.
+     *
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet click() {
+        for (int i = 0; i < size; i++) {
+            at(i).click();
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for clicks on the descendants of the ViewGroups with a specific id, see
+     * {@link AQ#on(int, EventListener)}.
+     *
+     * @param childId The id of the descendants.
+     * @param listener The listener to be executed when a descendant is clicked.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If the listener is null.
+     *
+     * @throws IllegalViewActionException If a view is not a ViewGroup.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet on(int childId, @NonNull EventListener listener) {
+        for (int i = 0; i < size; i++) {
+            at(i).on(childId, listener);
+        }
+        return this;
+    }
+
+    /**
+     * Removes the listeners set by on() for descendants with a specific id.
+     *
+     * @param childId The id of the descendants.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view is not a ViewGroup.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet off(int childId) {
+        for (int i = 0; i < size; i++) {
+            at(i).off(childId);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the visual x position of the views, in pixels.
+     *
+     * @param position The visual x position, in pixels.
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet x(float position) {
+        for (int i = 0; i < size; i++) {
+            at(i).x(position);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the visual y position of the views, in pixels.
+     *
+     * @param position The visual y position, in pixels.
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet y(float position) {
+        for (int i = 0; i < size; i++) {
+            at(i).y(position);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the horizontal location of the views relative to their left position.
+     *
+     * @param offset The horizontal position relative to the left position, in pixels.
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet translationX(float offset) {
+        for (int i = 0; i < size; i++) {
+            at(i).translationX(offset);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the vertical location of the views relative to their top position.
+     *
+     * @param offset The vertical position relative to the top position, in pixels.
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet translationY(float offset) {
+        for (int i = 0; i < size; i++) {
+            at(i).translationY(offset);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the visual z position of the views.
+     *
+     * @param position The visual z position.
+     * @return The current set.
+     *
+     * @throws  SDKVersionException If the SDK version is lower than 21.
+     * @see SDKVersionException
+     */
+    @NonNull
+    public AQSet z(float position) {
+        for (int i = 0; i < size; i++) {
+            at(i).z(position);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the depth location of the views relative to their elevation.
+     *
+     * @param offset The depth location relative to the elevation.
+     * @return The current set.
+     *
+     * @throws  SDKVersionException If the SDK version is lower than 21.
+     * @see SDKVersionException
+     */
+    @NonNull
+    public AQSet translationZ(float offset) {
+        for (int i = 0; i < size; i++) {
+            at(i).translationZ(offset);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the text of the views.
+     *
+     * @param text The text to set.
+     * @return The current set.
+     *
+     * @throws  IllegalViewActionException If a view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet text(String text) {
+        for (int i = 0; i < size; i++) {
+            at(i).text(text);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the text of the views, measuring it on a background thread, see
+     * {@link AQ#textAsync(CharSequence)}.
+     *
+     * @param text The text to set.
+     * @return The current set.
+     *
+     * @throws  IllegalViewActionException If a view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet textAsync(CharSequence text) {
+        for (int i = 0; i < size; i++) {
+            at(i).textAsync(text);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the text size of the views.
+     *
+     * @param textSize The text size to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a TextView or EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet textSize(float textSize) {
+        for (int i = 0; i < size; i++) {
+            at(i).textSize(textSize);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the typeface of the views. The typeface is looked up once for the whole set.
+     *
+     * @param path The path to the font file.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If path is null.
+     *
+     * @throws IllegalViewActionException If a view isn't a TextView or EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet typeFace(@NonNull String path) {
+        if (path == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+        if (size == 0)
+            return this;
+
+        return typeFace(TypefaceCache.get(views[0].getContext(), path));
+    }
+
+    /**
+     * Sets the typeface of the views.
+     *
+     * @param typeface The typeface to set.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If typeface is null.
+     *
+     * @throws IllegalViewActionException If a view isn't a TextView or EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet typeFace(@NonNull Typeface typeface) {
+        for (int i = 0; i < size; i++) {
+            at(i).typeFace(typeface);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a Bitmap to the views.
+     *
+     * @param bitmap The bitmap to set.
+     * @return The current set.
+     *
+     * @throws  IllegalViewActionException If a view isn't an ImageView.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet bitmap(Bitmap bitmap) {
+        for (int i = 0; i < size; i++) {
+            at(i).bitmap(bitmap);
+        }
+        return this;
+    }
+
+    /**
+     * Decodes an image resource on a background thread and sets it to the views, see
+     * {@link AQ#bitmap(int)}.
+     *
+     * @param resId The resource id of the image.
+     * @return The current set.
+     *
+     * @throws  IllegalViewActionException If a view isn't an ImageView.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet bitmap(int resId) {
+        for (int i = 0; i < size; i++) {
+            at(i).bitmap(resId);
+        }
+        return this;
+    }
+
+    /**
+     * Decodes an image file on a background thread and sets it to the views, see
+     * {@link AQ#bitmap(File)}.
+     *
+     * @param file The image file.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If file is null.
+     *
+     * @throws  IllegalViewActionException If a view isn't an ImageView.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet bitmap(@NonNull File file) {
+        if (file == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        for (int i = 0; i < size; i++) {
+            at(i).bitmap(file);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a drawable as the views' background.
+     *
+     * @param background The drawable to set as background.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If the background drawable is null.
+     */
+    @NonNull
+    public AQSet background(@NonNull Drawable background) {
+        for (int i = 0; i < size; i++) {
+            at(i).background(background);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the maximum value of the SeekBars.
+     *
+     * @param max The max value to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet max(int max) {
+        for (int i = 0; i < size; i++) {
+            at(i).max(max);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the progress of the SeekBars.
+     *
+     * @param progress The progress to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws SDKVersionException If the SDK version is less that version N.
+     * @see SDKVersionException
+     */
+    @NonNull
+    public AQSet progress(int progress) {
+        for (int i = 0; i < size; i++) {
+            at(i).progress(progress);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the progress of the SeekBars.
+     *
+     * @param progress The progress to set.
+     * @param animate If true, the change of progress will be animated.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws SDKVersionException If the SDK version is less that version N.
+     * @see SDKVersionException
+     */
+    @NonNull
+    public AQSet progress(int progress, boolean animate) {
+        for (int i = 0; i < size; i++) {
+            at(i).progress(progress, animate);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the minimum value of the SeekBars.
+     *
+     * @param min The min value to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws SDKVersionException If the SDK version is less than O.
+     * @see SDKVersionException
+     */
+    @NonNull
+    public AQSet min(int min) {
+        for (int i = 0; i < size; i++) {
+            at(i).min(min);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for when the user has started a touch gesture on the SeekBars, see
+     * {@link AQ#startTrackingTouch(EventListener)}.
+     *
+     * @param eventListener The listener to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null.
+     */
+    @NonNull
+    public AQSet startTrackingTouch(@NonNull EventListener eventListener) {
+        for (int i = 0; i < size; i++) {
+            at(i).startTrackingTouch(eventListener);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for when the user has stopped a touch gesture on the SeekBars, see
+     * {@link AQ#stopTrackingTouch(EventListener)}.
+     *
+     * @param eventListener The listener to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null.
+     */
+    @NonNull
+    public AQSet stopTrackingTouch(@NonNull EventListener eventListener) {
+        for (int i = 0; i < size; i++) {
+            at(i).stopTrackingTouch(eventListener);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for when the progress of the SeekBars has changed, see
+     * {@link AQ#progressChanged(SeekBarProgressChangedListener)}.
+     *
+     * @param listener The listener to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null.
+     */
+    @NonNull
+    public AQSet progressChanged(@NonNull SeekBarProgressChangedListener listener) {
+        for (int i = 0; i < size; i++) {
+            at(i).progressChanged(listener);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for when the progress of the SeekBars has changed, that is called at most
+     * once per interval for every SeekBar, see
+     * {@link AQ#progressChangedThrottled(SeekBarProgressChangedListener, long)}.
+     *
+     * @param listener The listener to set.
+     * @param interval The minimum time between two calls, in milliseconds.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null or the interval is negative.
+     */
+    @NonNull
+    public AQSet progressChangedThrottled(@NonNull SeekBarProgressChangedListener listener,
+                                          long interval) {
+        for (int i = 0; i < size; i++) {
+            at(i).progressChangedThrottled(listener, interval);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for when the progress of the SeekBars has changed, that is called once the
+     * progress of a SeekBar hasn't changed for an interval, see
+     * {@link AQ#progressChangedDebounced(SeekBarProgressChangedListener, long)}.
+     *
+     * @param listener The listener to set.
+     * @param interval The time without changes to wait for, in milliseconds.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null or the interval is negative.
+     */
+    @NonNull
+    public AQSet progressChangedDebounced(@NonNull SeekBarProgressChangedListener listener,
+                                          long interval) {
+        for (int i = 0; i < size; i++) {
+            at(i).progressChangedDebounced(listener, interval);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for the change events of the SeekBars, see
+     * {@link AQ#seekBarChanged(SeekBar.OnSeekBarChangeListener)}.
+     *
+     * @param listener The listener to set.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null.
+     */
+    @NonNull
+    public AQSet seekBarChanged(@NonNull SeekBar.OnSeekBarChangeListener listener) {
+        for (int i = 0; i < size; i++) {
+            at(i).seekBarChanged(listener);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for the change events of the SeekBars, whose onProgressChanged() is called
+     * at most once per interval for every SeekBar, see
+     * {@link AQ#seekBarChangedThrottled(SeekBar.OnSeekBarChangeListener, long)}.
+     *
+     * @param listener The listener to set.
+     * @param interval The minimum time between two progress changes, in milliseconds.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null or the interval is negative.
+     */
+    @NonNull
+    public AQSet seekBarChangedThrottled(@NonNull SeekBar.OnSeekBarChangeListener listener,
+                                         long interval) {
+        for (int i = 0; i < size; i++) {
+            at(i).seekBarChangedThrottled(listener, interval);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a listener for the change events of the SeekBars, whose onProgressChanged() is called
+     * once the progress of a SeekBar hasn't changed for an interval, see
+     * {@link AQ#seekBarChangedDebounced(SeekBar.OnSeekBarChangeListener, long)}.
+     *
+     * @param listener The listener to set.
+     * @param interval The time without changes to wait for, in milliseconds.
+     * @return The current set.
+     *
+     * @throws IllegalViewActionException If a view isn't a SeekBar.
+     * @see IllegalViewActionException
+     *
+     * @throws IllegalArgumentException If the listener is null or the interval is negative.
+     */
+    @NonNull
+    public AQSet seekBarChangedDebounced(@NonNull SeekBar.OnSeekBarChangeListener listener,
+                                         long interval) {
+        for (int i = 0; i < size; i++) {
+            at(i).seekBarChangedDebounced(listener, interval);
+        }
+        return this;
+    }
+
+    /**
+     * Animates properties of the views, see {@link AQ#animate(AnimatorSetup)}. The animations of
+     * all the views are set up and started in a single pass, so they start on the same frame.
+     *
+     * @param setup The object that sets up the animation of every view.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If setup is null.
+     */
+    @NonNull
+    public AQSet animate(@NonNull AnimatorSetup setup) {
+        for (int i = 0; i < size; i++) {
+            at(i).animate(setup);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the validation rules of the text fields, replacing their previous rules, see
+     * {@link AQ#rules(RuleChain)}. The fields share the rules.
+     *
+     * @param rules The rules of the fields.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If rules is null.
+     *
+     * @throws IllegalViewActionException If a view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet rules(@NonNull RuleChain rules) {
+        for (int i = 0; i < size; i++) {
+            at(i).rules(rules);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the validation rules of the text fields and validates them in the background, see
+     * {@link AQ#rulesAsync(RuleChain, ValidationListener)}. The listener is called for every
+     * field.
+     *
+     * @param rules The rules of the fields.
+     * @param listener The listener to call with the results.
+     * @return The current set.
+     *
+     * @throws IllegalArgumentException If rules or listener is null.
+     *
+     * @throws IllegalViewActionException If a view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public AQSet rulesAsync(@NonNull RuleChain rules, @NonNull ValidationListener listener) {
+        for (int i = 0; i < size; i++) {
+            at(i).rulesAsync(rules, listener);
+        }
+        return this;
+    }
+
+    /**
+     * Checks the text fields of the set against their rules, see {@link AQ#valid()}. Only the
+     * fields whose text changed since they were last checked are validated again.
+     *
+     * @return True if all the fields are valid, false otherwise.
+     *
+     * @throws IllegalViewActionException If a view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    public boolean valid() {
+        for (int i = 0; i < size; i++) {
+            if (!at(i).valid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the width of the views. Each view requests a single layout.
+     *
+     * @param width The new width.
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet width(int width) {
+        LayoutBatch.begin();
+        try {
+            for (int i = 0; i < size; i++) {
+                at(i).width(width);
+            }
+        } finally {
+            LayoutBatch.commit();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the height of the views. Each view requests a single layout.
+     *
+     * @param height The new height.
+     * @return The current set.
+     */
+    @NonNull
+    public AQSet height(int height) {
+        LayoutBatch.begin();
+        try {
+            for (int i = 0; i < size; i++) {
+                at(i).height(height);
+            }
+        } finally {
+            LayoutBatch.commit();
+        }
+        return this;
+    }
+
+    /**
+     * Points the reused AQuery object at the view with the specified index.
+     */
+    private AQ at(int index) {
+        if (cursor == null) {
+            cursor = new AQ(views[index]);
+            return cursor;
+        }
+        return cursor.rebind(views[index]);
+    }
+}
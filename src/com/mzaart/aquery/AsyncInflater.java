@@ -0,0 +1,49 @@
+package com.mzaart.aquery;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.mzaart.aquery.interfaces.EventListener;
+import com.mzaart.aquery.utils.Threads;
+
+/**
+ * Inflates layouts on a background thread and delivers them on the UI thread.
+ *
+ * Layouts containing views that can't be created off the UI thread (for example, views that
+ * create a Handler in their constructor) are inflated again on the UI thread.
+ */
+class AsyncInflater {
+
+    private AsyncInflater() {
+    }
+
+    static void inflate(final Context context, final int id, final ViewGroup parent,
+                        final EventListener callback) {
+        final LayoutInflater inflater = LayoutInflater.from(context);
+        // LayoutInflater isn't thread safe, so the background thread uses its own copy
+        final LayoutInflater background = inflater.cloneInContext(context);
+
+        Threads.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                View view;
+                try {
+                    view = background.inflate(id, parent, false);
+                } catch (RuntimeException e) {
+                    view = null;
+                }
+
+                final View inflated = view;
+                Threads.mainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        View layout = inflated != null ? inflated : inflater.inflate(id, parent, false);
+                        callback.onEvent(new AQ(layout));
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.mzaart.aquery;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.text.PrecomputedText;
+import android.widget.TextView;
+
+import com.mzaart.aquery.utils.TextLayoutCache;
+import com.mzaart.aquery.utils.Threads;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Measures texts on a background thread and sets them on their TextViews on the UI thread.
+ *
+ * Every TextView has at most one pending text. Setting another text on the view, whether
+ * asynchronously or not, discards the pending one.
+ */
+@TargetApi(Build.VERSION_CODES.P)
+class AsyncText {
+
+    private static final Map<TextView, Object> pending = new WeakHashMap<>();
+
+    private AsyncText() {
+    }
+
+    static void set(final TextView view, final CharSequence text) {
+        final PrecomputedText.Params params = view.getTextMetricsParams();
+        PrecomputedText cached = TextLayoutCache.get(text, params);
+        if (cached != null) {
+            pending.remove(view);
+            view.setText(cached);
+            return;
+        }
+
+        final Object token = new Object();
+        pending.put(view, token);
+        Threads.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                final PrecomputedText precomputed = TextLayoutCache.create(text, params);
+                Threads.mainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pending.get(view) != token) {
+                            return;
+                        }
+                        pending.remove(view);
+
+                        // the view's text attributes may have changed while measuring
+                        if (view.getTextMetricsParams().equals(precomputed.getParams())) {
+                            view.setText(precomputed);
+                        } else {
+                            view.setText(text);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Discards the pending text of a view, if any.
+     */
+    static void cancel(TextView view) {
+        if (!pending.isEmpty()) {
+            pending.remove(view);
+        }
+    }
+}
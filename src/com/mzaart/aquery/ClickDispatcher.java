@@ -0,0 +1,51 @@
+package com.mzaart.aquery;
+
+import android.view.View;
+
+import com.mzaart.aquery.interfaces.EventListener;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Dispatches clicks to an EventListener. A single dispatcher is shared by all the views that
+ * are bound to the same EventListener, so binding views doesn't allocate a listener per view.
+ *
+ * Note: Clicks are dispatched on the UI thread only.
+ */
+class ClickDispatcher implements View.OnClickListener {
+
+    // dispatchers are held by the views they are set on, the cache only refers to them weakly
+    private static final Map<EventListener, WeakReference<ClickDispatcher>> dispatchers =
+            new WeakHashMap<>();
+
+    private final EventListener listener;
+
+    private ClickDispatcher(EventListener listener) {
+        this.listener = listener;
+    }
+
+    static ClickDispatcher of(EventListener listener) {
+        WeakReference<ClickDispatcher> ref = dispatchers.get(listener);
+        ClickDispatcher dispatcher = ref != null ? ref.get() : null;
+        if (dispatcher == null) {
+            dispatcher = new ClickDispatcher(listener);
+            dispatchers.put(listener, new WeakReference<>(dispatcher));
+        }
+        return dispatcher;
+    }
+
+    @Override
+    public void onClick(View view) {
+        dispatch(listener, view);
+    }
+
+    /**
+     * Passes a clicked view to a listener. The listener gets its own AQuery object, which it
+     * may keep.
+     */
+    static void dispatch(EventListener listener, View view) {
+        listener.onEvent(new AQ(view));
+    }
+}
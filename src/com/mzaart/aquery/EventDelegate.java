@@ -0,0 +1,153 @@
+package com.mzaart.aquery;
+
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+import com.mzaart.aquery.interfaces.EventListener;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Dispatches the clicks on the descendants of a container to listeners registered by view id.
+ * A single touch listener is set on the container, and the clicked descendant is found by hit
+ * testing when a touch starts, so descendants added later need no listener of their own.
+ *
+ * Only touches that no descendant handles reach the container, so delegated descendants
+ * shouldn't be clickable themselves. Hit testing takes translations into account, but not
+ * scaling or rotation.
+ */
+class EventDelegate implements View.OnTouchListener {
+
+    // delegates are held by the containers they are set on, the cache only refers to them weakly
+    private static final Map<View, WeakReference<EventDelegate>> delegates = new WeakHashMap<>();
+
+    private final SparseArray<EventListener> listeners = new SparseArray<>();
+    private final int touchSlop;
+
+    private View target;
+    private float downX;
+    private float downY;
+
+    private EventDelegate(int touchSlop) {
+        this.touchSlop = touchSlop;
+    }
+
+    static void on(ViewGroup container, int childId, EventListener listener) {
+        WeakReference<EventDelegate> ref = delegates.get(container);
+        EventDelegate delegate = ref != null ? ref.get() : null;
+        if (delegate == null) {
+            delegate = new EventDelegate(
+                    ViewConfiguration.get(container.getContext()).getScaledTouchSlop());
+            delegates.put(container, new WeakReference<>(delegate));
+        }
+
+        delegate.listeners.put(childId, listener);
+        container.setOnTouchListener(delegate);
+    }
+
+    static void off(ViewGroup container, int childId) {
+        WeakReference<EventDelegate> ref = delegates.get(container);
+        EventDelegate delegate = ref != null ? ref.get() : null;
+        if (delegate != null) {
+            delegate.listeners.remove(childId);
+        }
+    }
+
+    /**
+     * Removes all the delegated listeners of a container.
+     */
+    static void clear(View container) {
+        WeakReference<EventDelegate> ref = delegates.remove(container);
+        EventDelegate delegate = ref != null ? ref.get() : null;
+        if (delegate != null) {
+            delegate.release();
+            delegate.listeners.clear();
+        }
+    }
+
+    @Override
+    public boolean onTouch(View container, MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                target = find((ViewGroup) container, event.getX(), event.getY());
+                if (target == null) {
+                    return false;
+                }
+                downX = event.getX();
+                downY = event.getY();
+                target.setPressed(true);
+                return true;
+
+            case MotionEvent.ACTION_MOVE:
+                if (target != null && (Math.abs(event.getX() - downX) > touchSlop
+                        || Math.abs(event.getY() - downY) > touchSlop)) {
+                    release();
+                }
+                return target != null;
+
+            case MotionEvent.ACTION_UP:
+                if (target == null) {
+                    return false;
+                }
+
+                View clicked = target;
+                release();
+                EventListener listener = listeners.get(clicked.getId());
+                if (listener != null) {
+                    clicked.playSoundEffect(SoundEffectConstants.CLICK);
+                    ClickDispatcher.dispatch(listener, clicked);
+                }
+                return true;
+
+            case MotionEvent.ACTION_CANCEL:
+                release();
+                return false;
+
+            default:
+                return target != null;
+        }
+    }
+
+    private void release() {
+        if (target != null) {
+            target.setPressed(false);
+            target = null;
+        }
+    }
+
+    /**
+     * Finds the deepest view under a point whose id has a listener.
+     *
+     * @param x The x coordinate, relative to the group.
+     * @param y The y coordinate, relative to the group.
+     * @return The found view, or null if no view under the point has a listener.
+     */
+    private View find(ViewGroup group, float x, float y) {
+        for (int i = group.getChildCount() - 1; i >= 0; i--) {
+            View child = group.getChildAt(i);
+            if (child.getVisibility() != View.VISIBLE) {
+                continue;
+            }
+
+            float childX = x + group.getScrollX() - child.getLeft() - child.getTranslationX();
+            float childY = y + group.getScrollY() - child.getTop() - child.getTranslationY();
+            if (childX < 0 || childY < 0 || childX >= child.getWidth() || childY >= child.getHeight()) {
+                continue;
+            }
+
+            // the top most child under the point gets the touch
+            View found = child instanceof ViewGroup ? find((ViewGroup) child, childX, childY) : null;
+            if (found == null && child.getId() != View.NO_ID && listeners.get(child.getId()) != null) {
+                found = child;
+            }
+            return found;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,169 @@
+package com.mzaart.aquery;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.TextView;
+
+import com.mzaart.aquery.interfaces.ValidationListener;
+import com.mzaart.aquery.utils.RuleChain;
+import com.mzaart.aquery.utils.Threads;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps the validation result of a text field until its text changes.
+ *
+ * The result is computed when it is asked for, against the live text of the field, and is
+ * kept until the next text change. So validating a form only checks the fields that changed
+ * since the last validation.
+ *
+ * A field can also be validated in the background: on every text change, a copy of the text is
+ * checked on the background executor and the result is delivered on the UI thread. A check
+ * still running when the text changes again is interrupted: it stops before its next rule, and
+ * its result is dropped.
+ *
+ * Note: This class is meant to be used from the UI thread only.
+ */
+class FieldValidator implements TextWatcher {
+
+    // a validator is held by its field as a TextWatcher, the map must not keep either alive
+    private static final Map<TextView, WeakReference<FieldValidator>> fields = new WeakHashMap<>();
+
+    private final WeakReference<TextView> field;
+
+    private RuleChain rules;
+    private boolean dirty = true;
+    private boolean valid;
+
+    private ValidationListener listener;
+    private int generation;
+    private Future<?> running;
+
+    private FieldValidator(TextView field, RuleChain rules) {
+        this.field = new WeakReference<>(field);
+        this.rules = rules;
+    }
+
+    /**
+     * Sets the rules of a field, replacing its previous rules.
+     *
+     * @param listener The listener of the background validations, or null to only validate
+     * the field when valid() is called.
+     */
+    static void set(TextView field, RuleChain rules, ValidationListener listener) {
+        FieldValidator validator = of(field);
+        if (validator == null) {
+            validator = new FieldValidator(field, rules);
+            fields.put(field, new WeakReference<>(validator));
+            field.addTextChangedListener(validator);
+        } else {
+            validator.rules = rules;
+            validator.dirty = true;
+            validator.cancel();
+        }
+
+        validator.listener = listener;
+        if (listener != null) {
+            validator.validateAsync(field.getText());
+        }
+    }
+
+    /**
+     * Checks a field against its rules. A field without rules is valid.
+     */
+    static boolean valid(TextView field) {
+        FieldValidator validator = of(field);
+        if (validator == null) {
+            return true;
+        }
+
+        if (validator.dirty) {
+            validator.valid = validator.rules.validate(field.getText());
+            validator.dirty = false;
+        }
+        return validator.valid;
+    }
+
+    /**
+     * Removes the rules of a field and drops its running check.
+     */
+    static void clear(TextView field) {
+        WeakReference<FieldValidator> ref = fields.remove(field);
+        FieldValidator validator = ref != null ? ref.get() : null;
+        if (validator != null) {
+            field.removeTextChangedListener(validator);
+            validator.listener = null;
+            validator.cancel();
+        }
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        dirty = true;
+        cancel();
+        if (listener != null) {
+            validateAsync(s);
+        }
+    }
+
+    private void cancel() {
+        generation++;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    private void validateAsync(CharSequence text) {
+        // the worker can't read the live text, it changes on the UI thread
+        final String snapshot = text.toString();
+        final RuleChain chain = rules;
+        final int expected = generation;
+
+        running = Threads.background().submit(new Runnable() {
+            @Override
+            public void run() {
+                final boolean result = chain.validate(snapshot);
+                if (Thread.currentThread().isInterrupted()) {
+                    // newer text arrived, the check stopped between two rules
+                    return;
+                }
+                Threads.mainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver(expected, result);
+                    }
+                });
+            }
+        });
+    }
+
+    private void deliver(int expected, boolean result) {
+        TextView view = field.get();
+        if (expected != generation || view == null || listener == null) {
+            return;
+        }
+
+        running = null;
+        valid = result;
+        dirty = false;
+
+        listener.onValidated(new AQ(view), result);
+    }
+
+    private static FieldValidator of(TextView field) {
+        WeakReference<FieldValidator> ref = fields.get(field);
+        return ref != null ? ref.get() : null;
+    }
+}
@@ -0,0 +1,253 @@
+package com.mzaart.aquery;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import com.mzaart.aquery.utils.Threads;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Queues property writes and applies them once per frame, see {@link FrameUpdate}.
+ *
+ * The writes of a view are kept in a single record, so a property written several times
+ * before a frame is only applied once, with its last value. Records are pooled, and the
+ * scheduler itself is the posted Runnable and frame callback, so a steady stream of writes
+ * doesn't allocate.
+ *
+ * A property set directly on a view drops its queued write, so that an older queued value
+ * doesn't overwrite the newer one at the next frame.
+ */
+final class FrameScheduler implements Runnable, Choreographer.FrameCallback {
+
+    static final int TEXT = 1;
+    static final int VISIBILITY = 1 << 1;
+    static final int ALPHA = 1 << 2;
+    static final int X = 1 << 3;
+    static final int Y = 1 << 4;
+    static final int TRANSLATION_X = 1 << 5;
+    static final int TRANSLATION_Y = 1 << 6;
+    static final int PROGRESS = 1 << 7;
+
+    private static final int MAX_POOL_SIZE = 64;
+
+    private static final FrameScheduler instance = new FrameScheduler();
+
+    // guards all the fields below, writes can come from any thread
+    private static final Object lock = new Object();
+
+    private static final Map<View, Record> records = new HashMap<>();
+    private static Record pending;
+    private static Record pool;
+    private static int poolSize;
+    // read without the lock by drop(), which only needs to know whether writes are queued
+    private static volatile boolean scheduled;
+
+    private FrameScheduler() {
+    }
+
+    static void write(View view, int property, String text) {
+        synchronized (lock) {
+            record(view, property).text = text;
+        }
+    }
+
+    static void write(View view, int property, int value) {
+        synchronized (lock) {
+            Record r = record(view, property);
+            if (property == VISIBILITY) {
+                r.visibility = value;
+            } else {
+                r.progress = value;
+            }
+        }
+    }
+
+    static void write(View view, int property, float value) {
+        synchronized (lock) {
+            Record r = record(view, property);
+            switch (property) {
+                case ALPHA:
+                    r.alpha = value;
+                    break;
+                case X:
+                    r.x = value;
+                    break;
+                case Y:
+                    r.y = value;
+                    break;
+                case TRANSLATION_X:
+                    r.translationX = value;
+                    break;
+                default:
+                    r.translationY = value;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Drops the queued writes of properties of a view. Called when the properties are set
+     * directly.
+     *
+     * @param properties The properties, as a mask.
+     */
+    static void drop(View view, int properties) {
+        if (!scheduled) {
+            return;
+        }
+
+        synchronized (lock) {
+            Record r = records.get(view);
+            if (r != null) {
+                r.properties &= ~properties;
+            }
+        }
+    }
+
+    /**
+     * Drops all the queued writes of a view.
+     */
+    static void cancel(View view) {
+        drop(view, ~0);
+    }
+
+    /**
+     * Gets the record of a view, marks a property as written and schedules the next frame.
+     * Must be called while holding the lock.
+     */
+    private static Record record(View view, int property) {
+        Record r = records.get(view);
+        if (r == null) {
+            if (pool != null) {
+                r = pool;
+                pool = r.next;
+                poolSize--;
+            } else {
+                r = new Record();
+            }
+            r.view = view;
+            r.next = pending;
+            pending = r;
+            records.put(view, r);
+        }
+        r.properties |= property;
+
+        if (!scheduled) {
+            scheduled = true;
+            if (Build.VERSION.SDK_INT >= 16 && Threads.isMainThread()) {
+                instance.postFrameCallback();
+            } else {
+                // never applied inline: the caller writes its value after this returns
+                Threads.mainHandler().post(instance);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Waits for the next frame, on the main thread. Before API 16, the writes are applied on
+     * the main loop pass that runs this.
+     */
+    @Override
+    public void run() {
+        if (Build.VERSION.SDK_INT >= 16) {
+            postFrameCallback();
+        } else {
+            doFrame(0);
+        }
+    }
+
+    @TargetApi(16)
+    private void postFrameCallback() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        Record head;
+        synchronized (lock) {
+            head = pending;
+            pending = null;
+            records.clear();
+            scheduled = false;
+        }
+
+        Record last = null;
+        for (Record r = head; r != null; r = r.next) {
+            r.apply();
+            last = r;
+        }
+
+        if (last != null) {
+            synchronized (lock) {
+                for (Record r = head; r != null && poolSize < MAX_POOL_SIZE; ) {
+                    Record next = r.next;
+                    r.clear();
+                    r.next = pool;
+                    pool = r;
+                    poolSize++;
+                    r = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * The pending writes of a view.
+     */
+    private static class Record {
+
+        View view;
+        int properties;
+        Record next;
+
+        String text;
+        int visibility;
+        float alpha;
+        float x;
+        float y;
+        float translationX;
+        float translationY;
+        int progress;
+
+        void apply() {
+            if ((properties & TEXT) != 0) {
+                AsyncText.cancel((TextView) view);
+                ((TextView) view).setText(text);
+            }
+            if ((properties & VISIBILITY) != 0) {
+                view.setVisibility(visibility);
+            }
+            if ((properties & ALPHA) != 0) {
+                view.setAlpha(alpha);
+            }
+            if ((properties & X) != 0) {
+                view.setX(x);
+            }
+            if ((properties & Y) != 0) {
+                view.setY(y);
+            }
+            if ((properties & TRANSLATION_X) != 0) {
+                view.setTranslationX(translationX);
+            }
+            if ((properties & TRANSLATION_Y) != 0) {
+                view.setTranslationY(translationY);
+            }
+            if ((properties & PROGRESS) != 0) {
+                ((SeekBar) view).setProgress(progress);
+            }
+        }
+
+        void clear() {
+            view = null;
+            text = null;
+            properties = 0;
+        }
+    }
+}
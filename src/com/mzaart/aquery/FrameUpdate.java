@@ -0,0 +1,146 @@
+package com.mzaart.aquery;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import com.mzaart.aquery.exceptions.IllegalViewActionException;
+
+/**
+ * Writes properties of a view at the next frame instead of right away.
+ *
+ * The writes are queued and applied together once per frame, on the main thread. Writing the
+ * same property of the same view several times before a frame only applies the last value, so
+ * views updated at a high rate (for example, from background data updates) are updated at
+ * most once per frame. The methods of this class can be called from any thread.
+ *
+ * <pre>
+ *     {@code
+ *     AQ progress = new AQ(this, R.id.progress);
+ *     ...
+ *     // on a worker thread
+ *     progress.scheduleOnFrame().progress(done).translationX(offset);
+ *     }
+ * </pre>
+ *
+ * @see AQ#scheduleOnFrame()
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class FrameUpdate {
+
+    final View view;
+
+    FrameUpdate(View view) {
+        this.view = view;
+    }
+
+    /**
+     * Sets the text of the view at the next frame.
+     *
+     * @param text The text to set.
+     * @return The current FrameUpdate object.
+     *
+     * @throws  IllegalViewActionException If the view isn't a TextView or an EditText.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public FrameUpdate text(String text) {
+        if (!(view instanceof TextView || view instanceof EditText))
+            throw new IllegalViewActionException();
+
+        FrameScheduler.write(view, FrameScheduler.TEXT, text);
+        return this;
+    }
+
+    /**
+     * Sets the visibility of the view at the next frame.
+     *
+     * @param visibility The visibility constant.
+     * @return The current FrameUpdate object.
+     */
+    @NonNull
+    public FrameUpdate visibility(int visibility) {
+        FrameScheduler.write(view, FrameScheduler.VISIBILITY, visibility);
+        return this;
+    }
+
+    /**
+     * Sets the opacity of the view at the next frame.
+     *
+     * @param alpha The opacity, between 0 and 1.
+     * @return The current FrameUpdate object.
+     */
+    @NonNull
+    public FrameUpdate alpha(float alpha) {
+        FrameScheduler.write(view, FrameScheduler.ALPHA, alpha);
+        return this;
+    }
+
+    /**
+     * Sets the visual x position of the view at the next frame, in pixels.
+     *
+     * @param position The visual x position, in pixels.
+     * @return The current FrameUpdate object.
+     */
+    @NonNull
+    public FrameUpdate x(float position) {
+        FrameScheduler.write(view, FrameScheduler.X, position);
+        return this;
+    }
+
+    /**
+     * Sets the visual y position of the view at the next frame, in pixels.
+     *
+     * @param position The visual y position, in pixels.
+     * @return The current FrameUpdate object.
+     */
+    @NonNull
+    public FrameUpdate y(float position) {
+        FrameScheduler.write(view, FrameScheduler.Y, position);
+        return this;
+    }
+
+    /**
+     * Sets the horizontal location of the view relative to its left position at the next frame.
+     *
+     * @param offset The horizontal position relative to the left position, in pixels.
+     * @return The current FrameUpdate object.
+     */
+    @NonNull
+    public FrameUpdate translationX(float offset) {
+        FrameScheduler.write(view, FrameScheduler.TRANSLATION_X, offset);
+        return this;
+    }
+
+    /**
+     * Sets the vertical location of the view relative to its top position at the next frame.
+     *
+     * @param offset The vertical position relative to the top position, in pixels.
+     * @return The current FrameUpdate object.
+     */
+    @NonNull
+    public FrameUpdate translationY(float offset) {
+        FrameScheduler.write(view, FrameScheduler.TRANSLATION_Y, offset);
+        return this;
+    }
+
+    /**
+     * Sets the progress of a SeekBar at the next frame. The change of progress isn't animated.
+     *
+     * @param progress The progress to set.
+     * @return The current FrameUpdate object.
+     *
+     * @throws IllegalViewActionException If the view isn't a SeekBar.
+     * @see IllegalViewActionException
+     */
+    @NonNull
+    public FrameUpdate progress(int progress) {
+        if (!(view instanceof SeekBar))
+            throw new IllegalViewActionException();
+
+        FrameScheduler.write(view, FrameScheduler.PROGRESS, progress);
+        return this;
+    }
+}
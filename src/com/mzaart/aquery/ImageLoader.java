@@ -0,0 +1,352 @@
+package com.mzaart.aquery;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.view.View;
+import android.widget.ImageView;
+
+import com.mzaart.aquery.interfaces.Cancellable;
+import com.mzaart.aquery.utils.BitmapCache;
+import com.mzaart.aquery.utils.DiskCache;
+import com.mzaart.aquery.utils.Threads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes bitmaps on a background thread, downsampled to the size of the ImageView they are
+ * set on, and sets them on the UI thread.
+ *
+ * Every ImageView has at most one pending request. Setting another image on the view cancels
+ * the pending request, so a recycled view never shows a stale image. Decoded bitmaps are kept
+ * in the BitmapCache, keyed by their source and size. If the disk cache is enabled, they are
+ * also stored downsampled on disk so that they don't have to be decoded from their source again.
+ */
+class ImageLoader {
+
+    private static final Map<ImageView, Request> pending = new WeakHashMap<>();
+
+    // the cached bitmaps shown by views
+    private static final Map<ImageView, Bitmap> shown = new WeakHashMap<>();
+
+    private static final int DISK_QUALITY = 90;
+
+    private static File diskDirectory;
+    private static long diskMaxSize;
+    private static DiskCache disk;
+
+    private ImageLoader() {
+    }
+
+    static void load(final ImageView view, final ImageSource source) {
+        cancel(view);
+        BitmapCache.register(view.getContext());
+
+        final Request request = new Request(source);
+        pending.put(view, request);
+
+        if (view.getWidth() > 0 && view.getHeight() > 0) {
+            request.start(view);
+        } else {
+            request.await(view);
+        }
+    }
+
+    /**
+     * Cancels the pending request of a view, if any.
+     */
+    static void cancel(ImageView view) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Request request = pending.remove(view);
+        if (request != null) {
+            request.cancel(view);
+        }
+    }
+
+    /**
+     * Sets a bitmap on a view.
+     *
+     * @param cached True if the bitmap is cached and may be reused once the view no longer
+     * shows it.
+     */
+    static void set(ImageView view, Bitmap bitmap, boolean cached) {
+        Bitmap previous = shown.isEmpty() ? null : shown.remove(view);
+        if (cached) {
+            BitmapCache.acquire(bitmap);
+            shown.put(view, bitmap);
+        }
+
+        view.setImageBitmap(bitmap);
+
+        if (previous != null) {
+            BitmapCache.release(previous);
+        }
+    }
+
+    /**
+     * Enables the disk cache. The cache is opened on the first background decode.
+     */
+    static synchronized void diskCache(File directory, long maxSize) {
+        if (disk != null) {
+            try {
+                disk.close();
+            } catch (IOException ignored) {
+            }
+            disk = null;
+        }
+        diskDirectory = directory;
+        diskMaxSize = maxSize;
+    }
+
+    /**
+     * Removes all the entries of the disk cache, on a background thread.
+     */
+    static void clearDiskCache() {
+        Threads.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                DiskCache disk = disk();
+                if (disk != null) {
+                    try {
+                        disk.clear();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the disk cache, or null if it isn't enabled or can't be opened.
+     */
+    private static synchronized DiskCache disk() {
+        if (disk == null && diskDirectory != null) {
+            try {
+                disk = DiskCache.open(diskDirectory, diskMaxSize);
+            } catch (IOException e) {
+                diskDirectory = null;
+            }
+        }
+        return disk;
+    }
+
+    private static Bitmap readDisk(DiskCache disk, String key, int width, int height) {
+        try {
+            byte[] data = disk.get(key);
+            return data != null ? decode(ImageSource.bytes(data), width, height) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeDisk(DiskCache disk, String key, Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean alpha = bitmap.hasAlpha();
+        if (!bitmap.compress(alpha ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
+                DISK_QUALITY, out)) {
+            return;
+        }
+
+        try {
+            disk.put(key, out.toByteArray());
+        } catch (IOException ignored) {
+            // the image is decoded from its source next time
+        }
+    }
+
+    static Bitmap decode(ImageSource source, int width, int height) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        source.decode(options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, width, height);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // mutable bitmaps can be reused by later decodes once they leave the cache
+            options.inMutable = true;
+            options.inBitmap = BitmapCache.reusable(
+                    ceilDiv(options.outWidth, options.inSampleSize),
+                    ceilDiv(options.outHeight, options.inSampleSize),
+                    Bitmap.Config.ARGB_8888);
+
+            if (options.inBitmap != null) {
+                try {
+                    return source.decode(options);
+                } catch (IllegalArgumentException e) {
+                    // the pooled bitmap can't hold the image after all
+                    options.inBitmap = null;
+                }
+            }
+        }
+
+        return source.decode(options);
+    }
+
+    /**
+     * Gets the largest power of 2 sample size that keeps the decoded image at least as large
+     * as the requested size.
+     */
+    static int sampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int sampleSize = 1;
+        if (width > reqWidth || height > reqHeight) {
+            int halfWidth = width / 2;
+            int halfHeight = height / 2;
+            while (halfWidth / sampleSize >= reqWidth && halfHeight / sampleSize >= reqHeight) {
+                sampleSize *= 2;
+            }
+        }
+        return sampleSize;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * The pending image of a view.
+     *
+     * A request waiting for the layout of its view keeps waiting while the view is detached:
+     * the layout callback is dropped with the detach, and armed again once the view is
+     * attached. The request refers to its view only through that callback, since the pending
+     * map must not keep the view alive.
+     */
+    private static class Request implements View.OnAttachStateChangeListener {
+
+        final ImageSource source;
+
+        volatile boolean cancelled;
+        Future<?> future;
+        Cancellable layout;
+
+        Request(ImageSource source) {
+            this.source = source;
+        }
+
+        /**
+         * Starts the request once the view is laid out.
+         */
+        void await(ImageView view) {
+            view.addOnAttachStateChangeListener(this);
+            arm(view);
+        }
+
+        private void arm(final ImageView view) {
+            layout = TreeCallbacks.add(view, TreeCallbacks.LAYOUT, new Runnable() {
+                @Override
+                public void run() {
+                    layout = null;
+                    view.removeOnAttachStateChangeListener(Request.this);
+                    if (!cancelled) {
+                        start(view);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            if (!cancelled && layout == null) {
+                arm((ImageView) v);
+            }
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            // the layout callback is cancelled by the detach
+            layout = null;
+        }
+
+        void start(final ImageView view) {
+            int width = view.getWidth();
+            int height = view.getHeight();
+            if (width <= 0 || height <= 0) {
+                // wrap_content views are never larger than the screen
+                DisplayMetrics metrics = view.getResources().getDisplayMetrics();
+                width = metrics.widthPixels;
+                height = metrics.heightPixels;
+            }
+
+            String sourceKey = source.key();
+            final String key = sourceKey != null ? sourceKey + "@" + width + "x" + height : null;
+            if (key != null) {
+                Bitmap cached = BitmapCache.get(key);
+                if (cached != null) {
+                    pending.remove(view);
+                    set(view, cached, true);
+                    return;
+                }
+            }
+
+            final int reqWidth = width;
+            final int reqHeight = height;
+            future = Threads.background().submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    DiskCache disk = key != null ? disk() : null;
+                    Bitmap decoded = disk != null ? readDisk(disk, key, reqWidth, reqHeight) : null;
+                    if (decoded == null) {
+                        try {
+                            decoded = decode(source, reqWidth, reqHeight);
+                        } catch (IOException e) {
+                            return;
+                        }
+
+                        // stored before the bitmap is shown, since it may be reused afterwards
+                        if (decoded != null && disk != null) {
+                            writeDisk(disk, key, decoded);
+                        }
+                    }
+
+                    final Bitmap bitmap = decoded;
+                    if (bitmap == null || cancelled) {
+                        return;
+                    }
+
+                    Threads.mainHandler().post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (key != null) {
+                                BitmapCache.put(key, bitmap);
+                            }
+
+                            if (!cancelled && pending.get(view) == Request.this) {
+                                pending.remove(view);
+                                set(view, bitmap, key != null);
+                            }
+                        }
+                    });
+                }
+            });
+        }
+
+        void cancel(ImageView view) {
+            cancelled = true;
+            view.removeOnAttachStateChangeListener(this);
+            if (layout != null) {
+                layout.cancel();
+                layout = null;
+            }
+            if (future != null) {
+                future.cancel(false);
+            }
+            source.release();
+        }
+    }
+}
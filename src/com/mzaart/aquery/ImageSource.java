@@ -0,0 +1,159 @@
+package com.mzaart.aquery;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A source that bitmaps can be decoded from. Every source can be decoded more than once, which
+ * is needed to read the bounds of an image before decoding it.
+ *
+ * Streams aren't cached since they can't be identified. Files are identified by their path,
+ * size and modification time, so an overwritten file gets a new key. Keys outlive the process in
+ * the disk cache, so resources are also identified by the installed build of the app, whose
+ * resource ids may differ, and by the density and night mode that select their variant.
+ */
+abstract class ImageSource {
+
+    private static volatile String appVersion;
+
+    /**
+     * Decodes the source. Called on a background thread.
+     *
+     * @param options The decoding options.
+     * @return The decoded bitmap, or null if the source can't be decoded or if only the
+     * bounds were requested.
+     * @throws IOException If the source can't be read.
+     */
+    abstract Bitmap decode(BitmapFactory.Options options) throws IOException;
+
+    /**
+     * Gets a key that identifies the image of the source, used to cache the decoded bitmaps.
+     *
+     * @return The key of the source, or null if the decoded bitmaps shouldn't be cached.
+     */
+    String key() {
+        return null;
+    }
+
+    /**
+     * Releases the resources held by the source once it won't be decoded anymore, for example
+     * because its request was cancelled. Called on the UI thread.
+     */
+    void release() {
+    }
+
+    static ImageSource file(final File file) {
+        return new ImageSource() {
+            @Override
+            Bitmap decode(BitmapFactory.Options options) {
+                return BitmapFactory.decodeFile(file.getPath(), options);
+            }
+
+            @Override
+            String key() {
+                return "file:" + file.getPath() + ":" + file.length() + ":" + file.lastModified();
+            }
+        };
+    }
+
+    static ImageSource resource(Context context, final int resId) {
+        final Resources resources = context.getResources();
+        final String version = appVersion(context);
+        return new ImageSource() {
+            @Override
+            Bitmap decode(BitmapFactory.Options options) {
+                return BitmapFactory.decodeResource(resources, resId, options);
+            }
+
+            @Override
+            String key() {
+                Configuration config = resources.getConfiguration();
+                return "res:" + resId + ":" + version
+                        + ":" + resources.getDisplayMetrics().densityDpi
+                        + ":" + (config.uiMode & Configuration.UI_MODE_NIGHT_MASK);
+            }
+        };
+    }
+
+    /**
+     * A source that decodes an encoded image held in memory.
+     */
+    static ImageSource bytes(final byte[] data) {
+        return new ImageSource() {
+            @Override
+            Bitmap decode(BitmapFactory.Options options) {
+                return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+            }
+        };
+    }
+
+    /**
+     * A source that reads a stream once and decodes the read bytes. The stream is closed once
+     * it is read, or once the source is released before.
+     */
+    static ImageSource stream(final InputStream stream) {
+        return new ImageSource() {
+
+            private byte[] data;
+
+            @Override
+            Bitmap decode(BitmapFactory.Options options) throws IOException {
+                if (data == null) {
+                    data = read(stream);
+                }
+                return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+            }
+
+            @Override
+            void release() {
+                // a read in progress fails and its request is dropped
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                }
+            }
+        };
+    }
+
+    /**
+     * Identifies the installed build of the app. The update time changes even when a build is
+     * installed again with the same version code.
+     */
+    private static String appVersion(Context context) {
+        String version = appVersion;
+        if (version == null) {
+            try {
+                PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+                version = info.versionCode + "." + info.lastUpdateTime;
+            } catch (PackageManager.NameNotFoundException e) {
+                version = "0";
+            }
+            appVersion = version;
+        }
+        return version;
+    }
+
+    private static byte[] read(InputStream stream) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(stream.available(), 8192));
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.mzaart.aquery;
+
+import android.view.View;
+
+import com.mzaart.aquery.utils.Threads;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Coalesces the layout requests of views whose layout params are changed while an update is
+ * in progress. Every affected view is asked for a new layout once, when the outermost update
+ * is committed.
+ *
+ * An update left open when the UI thread gets back to its message loop was never committed,
+ * so it is committed then: a missing commit() can't keep views from being laid out forever.
+ *
+ * Updates started off the UI thread, for example by setters whose calls are marshaled to the
+ * UI thread, are ignored: the state of the batch is only touched on the UI thread, and the
+ * marshaled changes request their layouts when they are applied.
+ */
+class LayoutBatch {
+
+    private static final Set<View> pending =
+            Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+
+    private static final Runnable guard = new Runnable() {
+        @Override
+        public void run() {
+            guarded = false;
+            if (depth > 0) {
+                depth = 0;
+                flush();
+            }
+        }
+    };
+
+    private static int depth;
+    private static boolean guarded;
+
+    private LayoutBatch() {
+    }
+
+    static void begin() {
+        if (!Threads.isMainThread()) {
+            return;
+        }
+        if (depth++ == 0 && !guarded) {
+            guarded = true;
+            Threads.mainHandler().post(guard);
+        }
+    }
+
+    static void commit() {
+        if (!Threads.isMainThread()) {
+            return;
+        }
+        if (depth == 0)
+            throw new IllegalStateException("No update is in progress.");
+
+        if (--depth > 0)
+            return;
+
+        flush();
+    }
+
+    /**
+     * Requests a layout of the view, or records it if an update is in progress.
+     */
+    static void requestLayout(View view) {
+        if (!Threads.isMainThread() || depth == 0) {
+            view.requestLayout();
+            return;
+        }
+
+        pending.add(view);
+    }
+
+    private static void flush() {
+        try {
+            for (View view : pending) {
+                view.requestLayout();
+            }
+        } finally {
+            pending.clear();
+        }
+    }
+}
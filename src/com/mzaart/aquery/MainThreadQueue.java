@@ -0,0 +1,330 @@
+package com.mzaart.aquery;
+
+import android.graphics.Bitmap;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Animation;
+import android.widget.SeekBar;
+
+import com.mzaart.aquery.interfaces.AnimatorSetup;
+import com.mzaart.aquery.interfaces.EventListener;
+import com.mzaart.aquery.interfaces.SeekBarProgressChangedListener;
+import com.mzaart.aquery.interfaces.ValidationListener;
+import com.mzaart.aquery.utils.RuleChain;
+import com.mzaart.aquery.utils.Threads;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moves the AQ setter calls made on other threads to the main thread, when enabled with
+ * AQ.marshalToMainThread().
+ *
+ * A call is recorded as a command and pushed to a lock-free multi-producer single-consumer
+ * queue, so producing threads never block. The queue is drained on the main thread in batches:
+ * only the command that finds the queue idle posts a drain, and a single drain applies all the
+ * commands pushed before it runs.
+ */
+final class MainThreadQueue implements Runnable {
+
+    static final int TEXT = 0;
+    static final int VISIBILITY = 1;
+    static final int WIDTH = 2;
+    static final int HEIGHT = 3;
+    static final int X = 4;
+    static final int Y = 5;
+    static final int TRANSLATION_X = 6;
+    static final int TRANSLATION_Y = 7;
+    static final int PROGRESS = 8;
+    static final int APPEND = 9;
+    static final int APPEND_SIZE = 10;
+    static final int APPEND_PARAMS = 11;
+    static final int REMOVE = 12;
+    static final int REMOVE_ALL_VIEWS = 13;
+    static final int Z = 14;
+    static final int TRANSLATION_Z = 15;
+    static final int TEXT_SIZE = 16;
+    static final int TYPEFACE = 17;
+    static final int BACKGROUND = 18;
+    static final int MAX = 19;
+    static final int MIN = 20;
+    static final int LAYOUT_PARAMS = 21;
+    static final int BITMAP = 22;
+    static final int IMAGE = 23;
+    static final int CLICK = 24;
+    static final int CLICK_LIMITED = 25;
+    static final int PERFORM_CLICK = 26;
+    static final int ON = 27;
+    static final int OFF = 28;
+    static final int PRE_DRAW = 29;
+    static final int READY = 30;
+    static final int ANIMATOR = 31;
+    static final int ANIMATION = 32;
+    static final int BRING_TO_FRONT = 33;
+    static final int TEXT_ASYNC = 34;
+    static final int RULES = 35;
+    static final int START_TRACKING = 36;
+    static final int STOP_TRACKING = 37;
+    static final int PROGRESS_CHANGED = 38;
+    static final int SEEK_BAR_CHANGED = 39;
+
+    private static volatile boolean enabled;
+
+    private static final MainThreadQueue instance = new MainThreadQueue();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // producers append at the tail, the main thread consumes after the head
+    private final AtomicReference<Command> tail;
+    private Command head;
+
+    private AQ replay;
+
+    private MainThreadQueue() {
+        head = new Command();
+        tail = new AtomicReference<>(head);
+    }
+
+    static void enabled(boolean enabled) {
+        MainThreadQueue.enabled = enabled;
+    }
+
+    /**
+     * Checks if calls made on the current thread must be marshaled to the main thread.
+     */
+    static boolean marshals() {
+        return enabled && !Threads.isMainThread();
+    }
+
+    static void post(View target, int op, Object arg, Object arg2, int i1, int i2, float f) {
+        Command command = new Command();
+        command.target = target;
+        command.op = op;
+        command.arg = arg;
+        command.arg2 = arg2;
+        command.i1 = i1;
+        command.i2 = i2;
+        command.f = f;
+        instance.offer(command);
+    }
+
+    static void post(View target, int op, Object arg) {
+        post(target, op, arg, null, 0, 0, 0);
+    }
+
+    static void post(View target, int op, int i) {
+        post(target, op, null, null, i, 0, 0);
+    }
+
+    static void post(View target, int op, float f) {
+        post(target, op, null, null, 0, 0, f);
+    }
+
+    /**
+     * Posts a rate limited click listener.
+     */
+    static void postClick(View target, EventListener listener, int mode, long interval) {
+        Command command = new Command();
+        command.target = target;
+        command.op = CLICK_LIMITED;
+        command.arg = listener;
+        command.i1 = mode;
+        command.l = interval;
+        instance.offer(command);
+    }
+
+    private void offer(Command command) {
+        Command previous = tail.getAndSet(command);
+        previous.next = command;
+
+        if (scheduled.compareAndSet(false, true)) {
+            Threads.mainHandler().post(this);
+        }
+    }
+
+    /**
+     * Drains the queue, on the main thread.
+     */
+    @Override
+    public void run() {
+        // commands pushed from now on post another drain
+        scheduled.set(false);
+
+        Command command;
+        try {
+            while ((command = head.next) != null) {
+                head.next = null;
+                head = command;
+                apply(command);
+                command.clear();
+            }
+        } finally {
+            if (replay != null) {
+                replay.unbind();
+            }
+            if (head.next != null && scheduled.compareAndSet(false, true)) {
+                // a command threw, apply the rest later
+                Threads.mainHandler().post(this);
+            }
+        }
+    }
+
+    private void apply(Command c) {
+        AQ aq = replay != null ? replay.rebind(c.target) : (replay = new AQ(c.target));
+        switch (c.op) {
+            case TEXT:
+                aq.text((String) c.arg);
+                break;
+            case VISIBILITY:
+                aq.visibility(c.i1);
+                break;
+            case WIDTH:
+                aq.width(c.i1);
+                break;
+            case HEIGHT:
+                aq.height(c.i1);
+                break;
+            case X:
+                aq.x(c.f);
+                break;
+            case Y:
+                aq.y(c.f);
+                break;
+            case TRANSLATION_X:
+                aq.translationX(c.f);
+                break;
+            case TRANSLATION_Y:
+                aq.translationY(c.f);
+                break;
+            case PROGRESS:
+                aq.progress(c.i1, c.i2 != 0);
+                break;
+            case APPEND:
+                aq.append((View) c.arg, c.i1);
+                break;
+            case APPEND_SIZE:
+                aq.append((View) c.arg, c.i1, c.i2);
+                break;
+            case APPEND_PARAMS:
+                aq.append((View) c.arg, c.i1, (ViewGroup.LayoutParams) c.arg2);
+                break;
+            case REMOVE:
+                aq.remove();
+                break;
+            case REMOVE_ALL_VIEWS:
+                aq.removeAllViews();
+                break;
+            case Z:
+                aq.z(c.f);
+                break;
+            case TRANSLATION_Z:
+                aq.translationZ(c.f);
+                break;
+            case TEXT_SIZE:
+                aq.textSize(c.f);
+                break;
+            case TYPEFACE:
+                aq.typeFace((Typeface) c.arg);
+                break;
+            case BACKGROUND:
+                aq.background((Drawable) c.arg);
+                break;
+            case MAX:
+                aq.max(c.i1);
+                break;
+            case MIN:
+                aq.min(c.i1);
+                break;
+            case LAYOUT_PARAMS:
+                aq.layoutParams((ViewGroup.LayoutParams) c.arg);
+                break;
+            case BITMAP:
+                aq.bitmap((Bitmap) c.arg);
+                break;
+            case IMAGE:
+                aq.bitmap((ImageSource) c.arg);
+                break;
+            case CLICK:
+                aq.click((EventListener) c.arg);
+                break;
+            case CLICK_LIMITED:
+                if (c.i1 == RateLimiter.THROTTLE) {
+                    aq.clickThrottled((EventListener) c.arg, c.l);
+                } else {
+                    aq.clickDebounced((EventListener) c.arg, c.l);
+                }
+                break;
+            case PERFORM_CLICK:
+                aq.click();
+                break;
+            case ON:
+                aq.on(c.i1, (EventListener) c.arg);
+                break;
+            case OFF:
+                aq.off(c.i1);
+                break;
+            case PRE_DRAW:
+                aq.preDraw((Runnable) c.arg);
+                break;
+            case READY:
+                aq.ready((Runnable) c.arg);
+                break;
+            case ANIMATOR:
+                aq.animate((AnimatorSetup) c.arg);
+                break;
+            case ANIMATION:
+                aq.animate((Animation) c.arg);
+                break;
+            case BRING_TO_FRONT:
+                aq.bringToFront();
+                break;
+            case TEXT_ASYNC:
+                aq.textAsync((CharSequence) c.arg);
+                break;
+            case RULES:
+                if (c.arg2 != null) {
+                    aq.rulesAsync((RuleChain) c.arg, (ValidationListener) c.arg2);
+                } else {
+                    aq.rules((RuleChain) c.arg);
+                }
+                break;
+            case START_TRACKING:
+                aq.startTrackingTouch((EventListener) c.arg);
+                break;
+            case STOP_TRACKING:
+                aq.stopTrackingTouch((EventListener) c.arg);
+                break;
+            case PROGRESS_CHANGED:
+                aq.progressChanged((SeekBarProgressChangedListener) c.arg);
+                break;
+            case SEEK_BAR_CHANGED:
+                aq.seekBarChanged((SeekBar.OnSeekBarChangeListener) c.arg);
+                break;
+        }
+    }
+
+    /**
+     * A recorded setter call.
+     */
+    private static class Command {
+
+        volatile Command next;
+
+        View target;
+        int op;
+        Object arg;
+        Object arg2;
+        int i1;
+        int i2;
+        float f;
+        long l;
+
+        void clear() {
+            target = null;
+            arg = null;
+            arg2 = null;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.mzaart.aquery;
+
+import android.os.SystemClock;
+import android.view.View;
+import android.widget.SeekBar;
+
+import com.mzaart.aquery.interfaces.EventListener;
+import com.mzaart.aquery.interfaces.SeekBarProgressChangedListener;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Limits the rate at which events are delivered to a listener. The delayed deliveries are
+ * scheduled on the Handler of the view the events come from.
+ *
+ * A throttled limiter delivers an event right away, then at most one event per interval. A
+ * debounced limiter delivers an event once no other event came for a whole interval. Events
+ * carrying values (such as a SeekBar's progress) always end with the last value being
+ * delivered. The limiter itself is the scheduled Runnable, so events don't allocate.
+ */
+abstract class RateLimiter implements Runnable {
+
+    static final int THROTTLE = 0;
+    static final int DEBOUNCE = 1;
+
+    private final int mode;
+    private final long interval;
+
+    private long lastDelivery = Long.MIN_VALUE / 2;
+    private View scheduledOn;
+
+    RateLimiter(int mode, long interval) {
+        if (interval < 0)
+            throw new IllegalArgumentException("The interval can't be negative");
+
+        this.mode = mode;
+        this.interval = interval;
+    }
+
+    /**
+     * Delivers the last received event to the listener.
+     */
+    abstract void deliver();
+
+    /**
+     * Handles an event, whose values must have been stored before calling this method.
+     *
+     * @param view The view the event comes from.
+     * @param trailing If false, throttled events that come too early are dropped instead of
+     * being delivered at the end of the interval.
+     */
+    final void submit(View view, boolean trailing) {
+        if (mode == DEBOUNCE) {
+            cancel();
+            schedule(view, interval);
+            return;
+        }
+
+        if (scheduledOn != null) {
+            // the scheduled delivery picks up the new values
+            return;
+        }
+
+        long wait = lastDelivery + interval - SystemClock.uptimeMillis();
+        if (wait <= 0) {
+            run();
+        } else if (trailing) {
+            schedule(view, wait);
+        }
+    }
+
+    /**
+     * Delivers the scheduled event right away, if any.
+     */
+    final void flush() {
+        if (scheduledOn != null) {
+            cancel();
+            run();
+        }
+    }
+
+    @Override
+    public final void run() {
+        scheduledOn = null;
+        lastDelivery = SystemClock.uptimeMillis();
+        deliver();
+    }
+
+    private void schedule(View view, long delay) {
+        scheduledOn = view;
+        view.postDelayed(this, delay);
+    }
+
+    /**
+     * Drops the scheduled event, if any.
+     */
+    final void cancel() {
+        if (scheduledOn != null) {
+            scheduledOn.removeCallbacks(this);
+            scheduledOn = null;
+        }
+    }
+
+    /**
+     * Limits clicks. Throttled clicks that come too early are dropped.
+     */
+    static class Click extends RateLimiter implements View.OnClickListener {
+
+        // a limiter is held by its view as the OnClickListener, the map must not keep either alive
+        private static final Map<View, WeakReference<Click>> limiters = new WeakHashMap<>();
+
+        private final EventListener listener;
+        private View clicked;
+
+        private Click(EventListener listener, int mode, long interval) {
+            super(mode, interval);
+            this.listener = listener;
+        }
+
+        /**
+         * Sets a limited click listener on a view, replacing its previous click listener.
+         */
+        static void set(View view, EventListener listener, int mode, long interval) {
+            Click limiter = new Click(listener, mode, interval);
+            clear(view);
+            limiters.put(view, new WeakReference<>(limiter));
+            view.setOnClickListener(limiter);
+        }
+
+        /**
+         * Drops the scheduled click of a view, if any.
+         */
+        static void clear(View view) {
+            WeakReference<Click> ref = limiters.remove(view);
+            Click limiter = ref != null ? ref.get() : null;
+            if (limiter != null) {
+                limiter.cancel();
+                limiter.clicked = null;
+            }
+        }
+
+        @Override
+        public void onClick(View view) {
+            clicked = view;
+            submit(view, false);
+        }
+
+        @Override
+        void deliver() {
+            View view = clicked;
+            clicked = null;
+            ClickDispatcher.dispatch(listener, view);
+        }
+    }
+
+    /**
+     * Limits the progress changes of a SeekBar. The pending progress change is delivered by
+     * SeekBarListeners before the end of a touch.
+     */
+    static class Progress extends RateLimiter implements SeekBarProgressChangedListener {
+
+        private final SeekBarProgressChangedListener listener;
+
+        private AQ seekBar;
+        private int progress;
+        private boolean fromUser;
+
+        Progress(SeekBarProgressChangedListener listener, int mode, long interval) {
+            super(mode, interval);
+            this.listener = listener;
+        }
+
+        @Override
+        public void onProgressChanged(AQ seekBar, int progress, boolean fromUser) {
+            this.seekBar = seekBar;
+            this.progress = progress;
+            this.fromUser = fromUser;
+            submit(seekBar.raw(), true);
+        }
+
+        @Override
+        void deliver() {
+            AQ target = seekBar;
+            seekBar = null;
+            listener.onProgressChanged(target, progress, fromUser);
+        }
+    }
+
+    /**
+     * Limits the progress changes of a SeekBar.OnSeekBarChangeListener. Starting and stopping
+     * touches are forwarded right away, and stopping a touch first delivers the pending
+     * progress change.
+     */
+    static class Changes extends RateLimiter implements SeekBar.OnSeekBarChangeListener {
+
+        private final SeekBar.OnSeekBarChangeListener listener;
+
+        private SeekBar seekBar;
+        private int progress;
+        private boolean fromUser;
+
+        Changes(SeekBar.OnSeekBarChangeListener listener, int mode, long interval) {
+            super(mode, interval);
+            this.listener = listener;
+        }
+
+        @Override
+        public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+            this.seekBar = seekBar;
+            this.progress = progress;
+            this.fromUser = fromUser;
+            submit(seekBar, true);
+        }
+
+        @Override
+        public void onStartTrackingTouch(SeekBar seekBar) {
+            listener.onStartTrackingTouch(seekBar);
+        }
+
+        @Override
+        public void onStopTrackingTouch(SeekBar seekBar) {
+            flush();
+            listener.onStopTrackingTouch(seekBar);
+        }
+
+        @Override
+        void deliver() {
+            SeekBar target = seekBar;
+            seekBar = null;
+            listener.onProgressChanged(target, progress, fromUser);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.mzaart.aquery;
+
+import android.widget.SeekBar;
+
+import com.mzaart.aquery.interfaces.EventListener;
+import com.mzaart.aquery.interfaces.SeekBarProgressChangedListener;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The single SeekBar.OnSeekBarChangeListener of a SeekBar, which dispatches its events to the
+ * listeners registered through AQ. Every kind of listener has its own slot, so registering a
+ * listener only replaces the listener of the same kind.
+ *
+ * The AQuery object passed to the listeners is created once per SeekBar and always contains
+ * that SeekBar.
+ */
+class SeekBarListeners implements SeekBar.OnSeekBarChangeListener {
+
+    // the SeekBar keeps its listener alive, the map must not keep the SeekBar alive
+    private static final Map<SeekBar, WeakReference<SeekBarListeners>> listeners = new WeakHashMap<>();
+
+    EventListener start;
+    EventListener stop;
+    private SeekBarProgressChangedListener progress;
+    private SeekBar.OnSeekBarChangeListener changes;
+
+    private AQ wrapper;
+
+    private SeekBarListeners() {
+    }
+
+    /**
+     * Gets the listeners of a SeekBar and installs them as its OnSeekBarChangeListener, in case
+     * another listener was set directly on the SeekBar in the meantime.
+     */
+    static SeekBarListeners of(SeekBar seekBar) {
+        WeakReference<SeekBarListeners> ref = listeners.get(seekBar);
+        SeekBarListeners l = ref != null ? ref.get() : null;
+        if (l == null) {
+            l = new SeekBarListeners();
+            listeners.put(seekBar, new WeakReference<>(l));
+        }
+        seekBar.setOnSeekBarChangeListener(l);
+        return l;
+    }
+
+    /**
+     * Removes the listeners of a SeekBar and drops their scheduled deliveries.
+     */
+    static void clear(SeekBar seekBar) {
+        seekBar.setOnSeekBarChangeListener(null);
+        WeakReference<SeekBarListeners> ref = listeners.remove(seekBar);
+        SeekBarListeners l = ref != null ? ref.get() : null;
+        if (l != null) {
+            l.start = null;
+            l.stop = null;
+            l.setProgress(null);
+            l.setChanges(null);
+        }
+    }
+
+    /**
+     * Replaces the progress listener. A scheduled delivery of the replaced listener is dropped.
+     */
+    void setProgress(SeekBarProgressChangedListener progress) {
+        cancel(this.progress);
+        this.progress = progress;
+    }
+
+    /**
+     * Replaces the change listener. A scheduled delivery of the replaced listener is dropped.
+     */
+    void setChanges(SeekBar.OnSeekBarChangeListener changes) {
+        cancel(this.changes);
+        this.changes = changes;
+    }
+
+    @Override
+    public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+        if (changes != null) {
+            changes.onProgressChanged(seekBar, progress, fromUser);
+        }
+        if (this.progress != null) {
+            this.progress.onProgressChanged(wrapper(seekBar), progress, fromUser);
+        }
+    }
+
+    @Override
+    public void onStartTrackingTouch(SeekBar seekBar) {
+        if (changes != null) {
+            changes.onStartTrackingTouch(seekBar);
+        }
+        if (start != null) {
+            start.onEvent(wrapper(seekBar));
+        }
+    }
+
+    @Override
+    public void onStopTrackingTouch(SeekBar seekBar) {
+        if (progress instanceof RateLimiter) {
+            // the last progress comes before the end of the touch
+            ((RateLimiter) progress).flush();
+        }
+        if (changes != null) {
+            changes.onStopTrackingTouch(seekBar);
+        }
+        if (stop != null) {
+            stop.onEvent(wrapper(seekBar));
+        }
+    }
+
+    private static void cancel(Object listener) {
+        if (listener instanceof RateLimiter) {
+            ((RateLimiter) listener).cancel();
+        }
+    }
+
+    private AQ wrapper(SeekBar seekBar) {
+        if (wrapper == null) {
+            wrapper = new AQ(seekBar);
+        }
+        return wrapper;
+    }
+}
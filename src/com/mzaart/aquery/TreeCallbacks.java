@@ -0,0 +1,238 @@
+package com.mzaart.aquery;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.mzaart.aquery.interfaces.Cancellable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Runs callbacks on the next global layout or pre-draw pass of a view tree.
+ *
+ * All the callbacks pending on a ViewTreeObserver share a single registered listener, which
+ * drains them and unregisters itself once none is left. A callback is dropped when it is
+ * cancelled or when its view is detached from the window, so a view that never gets laid out
+ * again doesn't keep its callbacks alive.
+ *
+ * Note: This class is meant to be used from the UI thread only.
+ */
+class TreeCallbacks implements ViewTreeObserver.OnGlobalLayoutListener,
+        ViewTreeObserver.OnPreDrawListener {
+
+    static final int LAYOUT = 0;
+    static final int PRE_DRAW = 1;
+
+    // the observers keep their listeners alive, the maps must not keep the observers alive
+    private static final Map<ViewTreeObserver, TreeCallbacks> layout = new WeakHashMap<>();
+    private static final Map<ViewTreeObserver, TreeCallbacks> preDraw = new WeakHashMap<>();
+
+    private final int pass;
+    private final WeakReference<ViewTreeObserver> observer;
+
+    private List<Callback> callbacks = new ArrayList<>();
+    private List<Callback> draining = new ArrayList<>();
+    private boolean registered;
+
+    private TreeCallbacks(int pass, ViewTreeObserver observer) {
+        this.pass = pass;
+        this.observer = new WeakReference<>(observer);
+    }
+
+    /**
+     * Runs a runnable on the next pass of the view's tree.
+     *
+     * @param pass LAYOUT or PRE_DRAW.
+     * @return The handle to cancel the runnable.
+     */
+    static Cancellable add(View view, int pass, Runnable runnable) {
+        ViewTreeObserver observer = view.getViewTreeObserver();
+        Map<ViewTreeObserver, TreeCallbacks> observers = pass == LAYOUT ? layout : preDraw;
+
+        TreeCallbacks callbacks = observers.get(observer);
+        if (callbacks == null) {
+            callbacks = new TreeCallbacks(pass, observer);
+            observers.put(observer, callbacks);
+        }
+
+        Callback callback = new Callback(callbacks, view, runnable);
+        callbacks.callbacks.add(callback);
+        view.addOnAttachStateChangeListener(callback);
+
+        if (!callbacks.registered) {
+            callbacks.registered = true;
+            if (pass == LAYOUT) {
+                observer.addOnGlobalLayoutListener(callbacks);
+            } else {
+                observer.addOnPreDrawListener(callbacks);
+            }
+        }
+        return callback;
+    }
+
+    /**
+     * Cancels the pending runnables of a view.
+     */
+    static void cancel(View view) {
+        List<Callback> found = new ArrayList<>();
+        collect(layout, view, found);
+        collect(preDraw, view, found);
+
+        // cancelling a callback may unregister its listener and change the maps
+        for (int i = 0; i < found.size(); i++) {
+            found.get(i).cancel();
+        }
+    }
+
+    private static void collect(Map<ViewTreeObserver, TreeCallbacks> observers, View view,
+                                List<Callback> found) {
+        for (TreeCallbacks callbacks : observers.values()) {
+            for (int i = 0; i < callbacks.callbacks.size(); i++) {
+                Callback callback = callbacks.callbacks.get(i);
+                if (callback.view == view) {
+                    found.add(callback);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onGlobalLayout() {
+        drain();
+    }
+
+    @Override
+    public boolean onPreDraw() {
+        drain();
+        return true;
+    }
+
+    private void drain() {
+        // callbacks added while draining wait for the next pass
+        List<Callback> running = callbacks;
+        callbacks = draining;
+        draining = running;
+
+        try {
+            for (int i = 0; i < running.size(); i++) {
+                Callback callback = running.get(i);
+                if (callback.finish()) {
+                    callback.release();
+                    Runnable runnable = callback.runnable;
+                    callback.runnable = null;
+                    runnable.run();
+                }
+            }
+        } finally {
+            View view = running.isEmpty() ? null : running.get(0).view;
+            for (int i = 0; i < running.size(); i++) {
+                running.get(i).release();
+            }
+            running.clear();
+
+            if (view != null) {
+                unregisterIfIdle(view);
+            }
+        }
+    }
+
+    private void remove(Callback callback) {
+        if (callbacks.remove(callback)) {
+            unregisterIfIdle(callback.view);
+        }
+    }
+
+    /**
+     * Unregisters the listener once no callback is pending.
+     *
+     * @param view A view of the tree. The listener may have moved from the observer it was
+     * registered on to the observer of the window, so it is removed through the view.
+     */
+    @SuppressLint("ObsoleteSdkInt")
+    private void unregisterIfIdle(View view) {
+        if (!callbacks.isEmpty() || !registered) {
+            return;
+        }
+        registered = false;
+
+        ViewTreeObserver registeredOn = observer.get();
+        if (registeredOn != null) {
+            (pass == LAYOUT ? layout : preDraw).remove(registeredOn);
+        }
+
+        ViewTreeObserver current = view.getViewTreeObserver();
+        if (!current.isAlive()) {
+            return;
+        }
+        if (pass == PRE_DRAW) {
+            current.removeOnPreDrawListener(this);
+        } else if (Build.VERSION.SDK_INT < 16) {
+            current.removeGlobalOnLayoutListener(this);
+        } else {
+            current.removeOnGlobalLayoutListener(this);
+        }
+    }
+
+    /**
+     * A pending runnable, which is cancelled when its view is detached.
+     */
+    private static class Callback implements Cancellable, View.OnAttachStateChangeListener {
+
+        final TreeCallbacks owner;
+        final View view;
+        Runnable runnable;
+
+        private boolean finished;
+        private boolean listening = true;
+
+        Callback(TreeCallbacks owner, View view, Runnable runnable) {
+            this.owner = owner;
+            this.view = view;
+            this.runnable = runnable;
+        }
+
+        /**
+         * Marks the callback as finished.
+         *
+         * @return False if it was already finished.
+         */
+        boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+
+        void release() {
+            if (listening) {
+                listening = false;
+                view.removeOnAttachStateChangeListener(this);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (finish()) {
+                release();
+                runnable = null;
+                owner.remove(this);
+            }
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            cancel();
+        }
+    }
+}
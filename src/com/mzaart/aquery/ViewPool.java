@@ -0,0 +1,359 @@
+package com.mzaart.aquery;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import com.mzaart.aquery.interfaces.EventListener;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class keeps pools of inflated layouts, so that layouts that are inflated over and over
+ * (for example, the items of a feed) can be reused instead of being inflated again.
+ *
+ * Pooling is enabled per layout id, by calling maxSize() or prewarm(). Once enabled,
+ * AQ.inflate() hands out pooled layouts first and AQ.recycle() returns layouts to the pool.
+ * Pools are kept per Activity (or per context, for contexts that don't wrap an Activity) and
+ * are dropped when their Activity is destroyed. A recycled layout goes back to the pool of the
+ * context it was inflated with.
+ *
+ * Note: A pooled layout keeps the layout params it was inflated with, so a pool should only be
+ * used with parents of the same type. All methods must be called on the UI thread.
+ *
+ * <pre>
+ *     {@code
+ *     ViewPool.prewarm(this, R.layout.feed_item, feed, 10);
+ *     ...
+ *     AQ item = AQ.inflate(this, R.layout.feed_item, feed); // pooled if available
+ *     ...
+ *     AQ.recycle(item);
+ *     }
+ * </pre>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ViewPool {
+
+    private static final int DEFAULT_MAX_SIZE = 8;
+
+    private static final SparseIntArray maxSizes = new SparseIntArray();
+    private static final Map<Context, SparseArray<List<View>>> pools = new HashMap<>();
+
+    // the origins of the views handed out by pools, which only refer to their contexts weakly
+    // since an Activity reaches its views
+    private static final Map<View, Origin> origins = new WeakHashMap<>();
+
+    private static boolean registered;
+
+    private static int hits;
+    private static int misses;
+
+    private ViewPool() {
+    }
+
+    /**
+     * Enables pooling of a layout and sets the maximum number of pooled instances per context.
+     *
+     * @param layoutId The layout's Id.
+     * @param max The maximum number of pooled instances.
+     *
+     * @throws IllegalArgumentException If max is negative.
+     */
+    public static void maxSize(int layoutId, int max) {
+        if (max < 0)
+            throw new IllegalArgumentException("max can't be negative");
+
+        maxSizes.put(layoutId, max);
+        for (SparseArray<List<View>> byLayout : pools.values()) {
+            List<View> pool = byLayout.get(layoutId);
+            while (pool != null && pool.size() > max) {
+                pool.remove(pool.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Enables pooling of a layout and inflates instances of it on a background thread, so that
+     * later calls to AQ.inflate() don't have to inflate them.
+     *
+     * @param context The required context.
+     * @param layoutId The layout's Id.
+     * @param parent The parent the layouts will be added to.
+     * @param count The number of instances to inflate.
+     *
+     * @throws IllegalArgumentException If context or parent is null.
+     */
+    public static void prewarm(final Context context, final int layoutId, ViewGroup parent, int count) {
+        if (context == null || parent == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        if (maxSizes.indexOfKey(layoutId) < 0) {
+            maxSizes.put(layoutId, Math.max(count, DEFAULT_MAX_SIZE));
+        }
+
+        int missing = Math.min(count, maxSizes.get(layoutId)) - size(context, layoutId);
+        for (int i = 0; i < missing; i++) {
+            AsyncInflater.inflate(context, layoutId, parent, new EventListener() {
+                @Override
+                public void onEvent(AQ view) {
+                    track(view.raw(), context, layoutId);
+                    offer(key(context), layoutId, view.raw());
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the number of pooled instances of a layout.
+     *
+     * @param context The required context.
+     * @param layoutId The layout's Id.
+     * @return The number of pooled instances.
+     */
+    public static int size(Context context, int layoutId) {
+        SparseArray<List<View>> byLayout = pools.get(key(context));
+        List<View> pool = byLayout != null ? byLayout.get(layoutId) : null;
+        return pool != null ? pool.size() : 0;
+    }
+
+    /**
+     * Drops all pooled layouts.
+     */
+    public static void clear() {
+        pools.clear();
+    }
+
+    /**
+     * Gets the number of inflations served from a pool.
+     *
+     * @return The number of pool hits.
+     */
+    public static int hits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of inflations of pooled layouts that found their pool empty.
+     *
+     * @return The number of pool misses.
+     */
+    public static int misses() {
+        return misses;
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public static void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+    static boolean enabled(int layoutId) {
+        return maxSizes.size() > 0 && maxSizes.indexOfKey(layoutId) >= 0;
+    }
+
+    /**
+     * Takes a pooled instance of a layout.
+     *
+     * @return The pooled instance, or null if the pool is empty.
+     */
+    static View obtain(Context context, int layoutId) {
+        SparseArray<List<View>> byLayout = pools.get(key(context));
+        List<View> pool = byLayout != null ? byLayout.get(layoutId) : null;
+        if (pool == null || pool.isEmpty()) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return pool.remove(pool.size() - 1);
+    }
+
+    /**
+     * Marks a view as an instance of a pooled layout, so that it can be recycled.
+     *
+     * @param context The context the view was inflated with.
+     */
+    static void track(View view, Context context, int layoutId) {
+        origins.put(view, new Origin(key(context), layoutId));
+    }
+
+    /**
+     * Resets a view and returns it to its pool.
+     *
+     * @return True if the view was pooled, false otherwise.
+     */
+    static boolean recycle(View view) {
+        Origin origin = origins.get(view);
+        Context key = origin != null ? origin.key.get() : null;
+        if (key == null) {
+            return false;
+        }
+
+        if (view.getParent() instanceof ViewGroup) {
+            ((ViewGroup) view.getParent()).removeView(view);
+        }
+        reset(view);
+        // the view's own context may be a wrapper, such as a ContextThemeWrapper
+        return offer(key, origin.layoutId, view);
+    }
+
+    /**
+     * Gets the context whose pool holds the layouts inflated with a context: the wrapped
+     * Activity if any, the context itself otherwise.
+     */
+    private static Context key(Context context) {
+        Context c = context;
+        while (!(c instanceof Activity) && c instanceof ContextWrapper) {
+            Context base = ((ContextWrapper) c).getBaseContext();
+            if (base == null || base == c) {
+                return context;
+            }
+            c = base;
+        }
+        return c instanceof Activity ? c : context;
+    }
+
+    private static boolean offer(Context context, int layoutId, View view) {
+        if (context instanceof Activity && ((Activity) context).isFinishing()) {
+            // its pools are dropped once it is destroyed
+            return false;
+        }
+        int max = maxSizes.get(layoutId, 0);
+
+        SparseArray<List<View>> byLayout = pools.get(context);
+        if (byLayout == null) {
+            byLayout = new SparseArray<>();
+            pools.put(context, byLayout);
+            register(context);
+        }
+
+        List<View> pool = byLayout.get(layoutId);
+        if (pool == null) {
+            pool = new ArrayList<>(max);
+            byLayout.put(layoutId, pool);
+        }
+
+        if (pool.size() >= max) {
+            return false;
+        }
+        pool.add(view);
+        return true;
+    }
+
+    /**
+     * Removes the listeners of a view and its descendants and cancels their pending work.
+     */
+    private static void reset(View view) {
+        RateLimiter.Click.clear(view);
+        view.setOnClickListener(null);
+        view.setOnLongClickListener(null);
+        EventDelegate.clear(view);
+        view.setOnTouchListener(null);
+        view.clearAnimation();
+        TreeCallbacks.cancel(view);
+        FrameScheduler.cancel(view);
+
+        if (view instanceof SeekBar) {
+            SeekBarListeners.clear((SeekBar) view);
+        } else if (view instanceof TextView) {
+            AsyncText.cancel((TextView) view);
+            FieldValidator.clear((TextView) view);
+        } else if (view instanceof ImageView) {
+            ImageLoader.cancel((ImageView) view);
+        }
+
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            int count = group.getChildCount();
+            for (int i = 0; i < count; i++) {
+                reset(group.getChildAt(i));
+            }
+        }
+    }
+
+    /**
+     * Drops the pools of an Activity once it is destroyed, so that pooled views don't leak it.
+     */
+    private static void register(Context context) {
+        if (registered || !(context.getApplicationContext() instanceof Application)) {
+            return;
+        }
+        registered = true;
+
+        ((Application) context.getApplicationContext()).registerActivityLifecycleCallbacks(
+                new Application.ActivityLifecycleCallbacks() {
+                    @Override
+                    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+                    }
+
+                    @Override
+                    public void onActivityStarted(Activity activity) {
+                    }
+
+                    @Override
+                    public void onActivityResumed(Activity activity) {
+                    }
+
+                    @Override
+                    public void onActivityPaused(Activity activity) {
+                    }
+
+                    @Override
+                    public void onActivityStopped(Activity activity) {
+                    }
+
+                    @Override
+                    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+                    }
+
+                    @Override
+                    public void onActivityDestroyed(Activity activity) {
+                        pools.remove(activity);
+                        forget(activity);
+                    }
+                });
+    }
+
+    /**
+     * Forgets the origins of the views inflated with a destroyed Activity.
+     */
+    private static void forget(Activity activity) {
+        Iterator<Origin> iterator = origins.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().key.get() == activity) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * The pool a view goes back to.
+     */
+    private static class Origin {
+
+        final WeakReference<Context> key;
+        final int layoutId;
+
+        Origin(Context key, int layoutId) {
+            this.key = new WeakReference<>(key);
+            this.layoutId = layoutId;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.mzaart.aquery.interfaces;
+
+import android.view.ViewPropertyAnimator;
+
+/**
+ * This interface is to be implemented by classes that set up property animations
+ *
+ * @see ViewPropertyAnimator
+ */
+public interface AnimatorSetup {
+
+    /**
+     * This method is called to set up the animation of a view before it starts
+     * @param animator The ViewPropertyAnimator of the view
+     */
+    void setup(ViewPropertyAnimator animator);
+}
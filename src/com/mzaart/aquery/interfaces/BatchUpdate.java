@@ -0,0 +1,18 @@
+package com.mzaart.aquery.interfaces;
+
+import com.mzaart.aquery.AQ;
+
+/**
+ * This interface is to be implemented by classes that apply a batch of layout changes
+ *
+ * @see AQ#batch(BatchUpdate)
+ */
+public interface BatchUpdate {
+
+    /**
+     * This method is called to apply the layout changes of the batch
+     *
+     * @param view The AQuery object the batch was started on
+     */
+    void update(AQ view);
+}
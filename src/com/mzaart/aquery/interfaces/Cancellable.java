@@ -0,0 +1,12 @@
+package com.mzaart.aquery.interfaces;
+
+/**
+ * This interface is implemented by the handles of pending operations that can be cancelled
+ */
+public interface Cancellable {
+
+    /**
+     * Cancels the operation if it hasn't run yet. Calling it again has no effect.
+     */
+    void cancel();
+}
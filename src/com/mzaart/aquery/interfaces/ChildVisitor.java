@@ -0,0 +1,20 @@
+package com.mzaart.aquery.interfaces;
+
+import com.mzaart.aquery.AQ;
+
+/**
+ * This interface is to be implemented by classes that visit the children of a ViewGroup
+ *
+ * @see android.view.ViewGroup
+ */
+public interface ChildVisitor {
+
+    /**
+     * This method is called for every visited child. Note that the AQuery object is reused
+     * for all the children, so it shouldn't be kept after this method returns.
+     *
+     * @param child The visited child
+     * @param index The index of the child
+     */
+    void visit(AQ child, int index);
+}
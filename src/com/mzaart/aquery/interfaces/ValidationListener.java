@@ -0,0 +1,19 @@
+package com.mzaart.aquery.interfaces;
+
+import com.mzaart.aquery.AQ;
+
+/**
+ * This interface is to be implemented by classes that listen for the validation results of a
+ * text field
+ *
+ * @see com.mzaart.aquery.utils.RuleChain
+ */
+public interface ValidationListener {
+
+    /**
+     * This method is called on the UI thread when the text of the field has been validated
+     * @param field The validated field
+     * @param valid True if the text passes the rules of the field, false otherwise
+     */
+    void onValidated(AQ field, boolean valid);
+}
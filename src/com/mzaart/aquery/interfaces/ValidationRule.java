@@ -0,0 +1,17 @@
+package com.mzaart.aquery.interfaces;
+
+/**
+ * This interface is to be implemented by classes that validate the text of a field
+ *
+ * @see com.mzaart.aquery.utils.RuleChain
+ */
+public interface ValidationRule {
+
+    /**
+     * This method is called to check the text of a field. The text may be the live content of
+     * the field, so it shouldn't be kept.
+     * @param text The text to check
+     * @return True if the text is valid, false otherwise
+     */
+    boolean validate(CharSequence text);
+}
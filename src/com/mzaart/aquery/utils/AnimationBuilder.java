@@ -1,19 +1,38 @@
 package com.mzaart.aquery.utils;
 
 import android.content.Context;
+import android.util.SparseArray;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
 
 import com.mzaart.aquery.interfaces.AnimationListener;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This class builds Animation objects.
  *
+ * Loading an animation parses its XML resource. To avoid parsing the same resource over and
+ * over (for example, for the enter animation of list items), a builder can recycle the
+ * animations it builds: they are returned to a pool once they end, and later recycling builds
+ * of the same resource reuse them. Pools can be filled ahead of time with preload().
+ *
+ * A reused animation gets back the attributes of its resource, even if they were changed
+ * after an earlier build. An animation that still fills after its end is held by its view,
+ * so it isn't recycled.
+ *
  * @see Animation
  */
 @SuppressWarnings("unused")
 public class AnimationBuilder {
 
+    private static final int MAX_POOL_SIZE = 8;
+
+    // the idle animations of every resource, guarded by itself
+    private static final SparseArray<List<Pooled>> pool = new SparseArray<>();
+
     private int resId;
     private Context context;
 
@@ -23,6 +42,8 @@ public class AnimationBuilder {
     private AnimationListener onRepeat;
     private AnimationListener onEnd;
 
+    private boolean recycle;
+
     /**
      * Constructs an AnimationBuilder
      *
@@ -48,33 +69,117 @@ public class AnimationBuilder {
             throw new IllegalArgumentException("Invalid animation resource Id");
         }
 
-        Animation anim = AnimationUtils.loadAnimation(context, resId);
+        // only recycling builds take pooled animations, the others are never given back
+        Pooled pooled = recycle ? obtain(resId, duration) : null;
+        Animation anim;
+        if (pooled != null) {
+            anim = pooled.animation;
+            pooled.restore();
+            anim.reset();
+        } else {
+            anim = AnimationUtils.loadAnimation(context, resId);
+            if (recycle) {
+                pooled = new Pooled(resId, anim);
+            }
+        }
 
         if (duration > 0) {
             anim.setDuration(duration);
+            if (pooled != null) {
+                pooled.duration = duration;
+            }
         }
 
-        anim.setAnimationListener(new Animation.AnimationListener() {
+        anim.setAnimationListener(new Listener(recycle ? pooled : null));
+
+        return anim;
+    }
+
+    /**
+     * Loads animations on a background thread and adds them to the pools, so that later
+     * recycling builds of these resources don't have to parse them.
+     *
+     * @param context The required context.
+     * @param resIds The resource IDs of the animations.
+     *
+     * @throws IllegalArgumentException If context is null.
+     */
+    public static void preload(Context context, final int... resIds) {
+        if (context == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        final Context appContext = context.getApplicationContext();
+        Threads.background().execute(new Runnable() {
             @Override
-            public void onAnimationStart(Animation animation) {
-                if (onStart != null)
-                    onStart.onAnimationEvent(animation);
+            public void run() {
+                for (int id : resIds) {
+                    Animation anim;
+                    try {
+                        anim = AnimationUtils.loadAnimation(appContext, id);
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    recycle(new Pooled(id, anim));
+                }
             }
+        });
+    }
 
-            @Override
-            public void onAnimationEnd(Animation animation) {
-                if (onEnd != null)
-                    onEnd.onAnimationEvent(animation);
+    /**
+     * Drops all the pooled animations.
+     */
+    public static void clearPool() {
+        synchronized (pool) {
+            pool.clear();
+        }
+    }
+
+    /**
+     * Takes a pooled animation of a resource. An animation with the requested duration is
+     * preferred, then an animation whose duration was never changed.
+     *
+     * @param duration The requested duration, or 0 for the duration of the resource.
+     * @return The pooled animation, or null if there's none.
+     */
+    private static Pooled obtain(int resId, long duration) {
+        synchronized (pool) {
+            List<Pooled> idle = pool.get(resId);
+            if (idle == null || idle.isEmpty()) {
+                return null;
             }
 
-            @Override
-            public void onAnimationRepeat(Animation animation) {
-                if (onRepeat != null)
-                    onRepeat.onAnimationEvent(animation);
+            int match = -1;
+            for (int i = idle.size() - 1; i >= 0; i--) {
+                long d = idle.get(i).duration;
+                if (d == duration) {
+                    match = i;
+                    break;
+                } else if (d == 0 && match < 0) {
+                    match = i;
+                }
+            }
+            if (match < 0) {
+                return null;
             }
-        });
 
-        return anim;
+            Pooled pooled = idle.remove(match);
+            pooled.idle = false;
+            return pooled;
+        }
+    }
+
+    private static void recycle(Pooled pooled) {
+        synchronized (pool) {
+            List<Pooled> idle = pool.get(pooled.resId);
+            if (idle == null) {
+                idle = new ArrayList<>(MAX_POOL_SIZE);
+                pool.put(pooled.resId, idle);
+            }
+            if (!pooled.idle && idle.size() < MAX_POOL_SIZE) {
+                pooled.idle = true;
+                idle.add(pooled);
+            }
+        }
     }
 
     /**
@@ -88,6 +193,21 @@ public class AnimationBuilder {
         return this;
     }
 
+    /**
+     * Sets whether the built Animation is returned to a pool once it ends, to be reused by
+     * later builds of the same resource.
+     *
+     * Note: A recycled Animation shouldn't be used anymore once it has ended. An Animation
+     * that fills after its end is not recycled.
+     *
+     * @param recycle True to recycle the Animation, false otherwise.
+     * @return The current builder.
+     */
+    public AnimationBuilder recycle(boolean recycle) {
+        this.recycle = recycle;
+        return this;
+    }
+
     /**
      * Sets the AnimationListener to be called when the animation starts.
      *
@@ -118,4 +238,110 @@ public class AnimationBuilder {
         this.onEnd = listener;
         return this;
     }
+
+    /**
+     * A pooled animation of a resource, with the duration it was last built with and the
+     * attributes it was loaded with.
+     */
+    private static class Pooled {
+
+        final int resId;
+        final Animation animation;
+
+        // 0 while the duration of the resource was never changed
+        long duration;
+        boolean idle;
+
+        private final Interpolator interpolator;
+        private final long startOffset;
+        private final boolean fillAfter;
+        private final boolean fillBefore;
+        private final boolean fillEnabled;
+        private final int repeatCount;
+        private final int repeatMode;
+
+        Pooled(int resId, Animation animation) {
+            this.resId = resId;
+            this.animation = animation;
+
+            interpolator = animation.getInterpolator();
+            startOffset = animation.getStartOffset();
+            fillAfter = animation.getFillAfter();
+            fillBefore = animation.getFillBefore();
+            fillEnabled = animation.isFillEnabled();
+            repeatCount = animation.getRepeatCount();
+            repeatMode = animation.getRepeatMode();
+        }
+
+        /**
+         * Restores the attributes of the resource. Only the changed attributes are set, since
+         * setting an attribute of an AnimationSet overrides the attribute of its children.
+         */
+        void restore() {
+            Animation a = animation;
+            if (a.getInterpolator() != interpolator) {
+                a.setInterpolator(interpolator);
+            }
+            if (a.getStartOffset() != startOffset) {
+                a.setStartOffset(startOffset);
+            }
+            if (a.getFillAfter() != fillAfter) {
+                a.setFillAfter(fillAfter);
+            }
+            if (a.getFillBefore() != fillBefore) {
+                a.setFillBefore(fillBefore);
+            }
+            if (a.isFillEnabled() != fillEnabled) {
+                a.setFillEnabled(fillEnabled);
+            }
+            if (a.getRepeatCount() != repeatCount) {
+                a.setRepeatCount(repeatCount);
+            }
+            if (a.getRepeatMode() != repeatMode) {
+                a.setRepeatMode(repeatMode);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the events of a built animation to the listeners of the builder.
+     */
+    private class Listener implements Animation.AnimationListener, Runnable {
+
+        private final Pooled pooled;
+
+        Listener(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public void onAnimationStart(Animation animation) {
+            if (onStart != null)
+                onStart.onAnimationEvent(animation);
+        }
+
+        @Override
+        public void onAnimationEnd(Animation animation) {
+            if (onEnd != null)
+                onEnd.onAnimationEvent(animation);
+
+            if (pooled != null && !animation.getFillAfter()) {
+                // the view finishes with the animation after this callback, unless it keeps
+                // it to fill after its end
+                Threads.mainHandler().post(this);
+            }
+        }
+
+        @Override
+        public void onAnimationRepeat(Animation animation) {
+            if (onRepeat != null)
+                onRepeat.onAnimationEvent(animation);
+        }
+
+        @Override
+        public void run() {
+            pooled.animation.setAnimationListener(null);
+            AnimationBuilder.recycle(pooled);
+        }
+    }
 }
@@ -0,0 +1,338 @@
+package com.mzaart.aquery.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class caches the bitmaps decoded by AQuery, bounded by their size in bytes.
+ *
+ * Bitmaps evicted from the cache that aren't shown by any view are kept in a pool, so that
+ * later decodes can reuse their memory (see BitmapFactory.Options.inBitmap) instead of
+ * allocating new bitmaps. The cache and the pool are trimmed when the system asks the app to
+ * release memory.
+ *
+ * Note: A bitmap set by AQuery's image loading methods may be reused once the view it is
+ * shown in is given another image, so it shouldn't be kept elsewhere.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class BitmapCache {
+
+    private static final int DEFAULT_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 8,
+            Integer.MAX_VALUE);
+
+    private static final Object lock = new Object();
+
+    private static volatile Memory memory = new Memory(DEFAULT_SIZE);
+
+    private static final List<Bitmap> pool = new ArrayList<>();
+    private static int poolBytes;
+
+    // how many views show a cached bitmap, only accessed on the UI thread
+    private static final Map<Bitmap, Integer> shown = new WeakHashMap<>();
+
+    private static boolean registered;
+
+    /**
+     * Gets a cached bitmap.
+     *
+     * @param key The key of the bitmap.
+     * @return The cached bitmap, or null if it isn't cached.
+     */
+    public static Bitmap get(String key) {
+        return memory.get(key);
+    }
+
+    /**
+     * Caches a bitmap.
+     *
+     * @param key The key of the bitmap.
+     * @param bitmap The bitmap to cache.
+     */
+    public static void put(String key, Bitmap bitmap) {
+        memory.put(key, bitmap);
+    }
+
+    /**
+     * Removes a bitmap from the cache.
+     *
+     * @param key The key of the bitmap.
+     */
+    public static void remove(String key) {
+        memory.remove(key);
+    }
+
+    /**
+     * Removes all bitmaps from the cache and the pool.
+     */
+    public static void clear() {
+        memory.clear();
+        clearPool();
+    }
+
+    /**
+     * Sets the maximum size of the cache. The pool is bounded to a quarter of that size.
+     * Note that this drops all cached bitmaps.
+     *
+     * @param bytes The maximum size of the cache, in bytes.
+     */
+    public static void maxSize(int bytes) {
+        Memory old = memory;
+        memory = new Memory(bytes);
+        old.clear();
+        clearPool();
+    }
+
+    /**
+     * Gets the maximum size of the cache.
+     *
+     * @return The maximum size of the cache, in bytes.
+     */
+    public static int maxSize() {
+        return memory.maxSize();
+    }
+
+    /**
+     * Gets the size of the cached bitmaps.
+     *
+     * @return The size of the cached bitmaps, in bytes.
+     */
+    public static int size() {
+        return memory.size();
+    }
+
+    /**
+     * Gets the size of the bitmaps kept for reuse.
+     *
+     * @return The size of the pooled bitmaps, in bytes.
+     */
+    public static int poolSize() {
+        synchronized (lock) {
+            return poolBytes;
+        }
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public static int hits() {
+        return memory.hitCount();
+    }
+
+    /**
+     * Gets the number of lookups that weren't served from the cache.
+     *
+     * @return The number of cache misses.
+     */
+    public static int misses() {
+        return memory.missCount();
+    }
+
+    /**
+     * Gets the ratio of lookups served from the cache.
+     *
+     * @return The hit rate, between 0 and 1.
+     */
+    public static float hitRate() {
+        int hits = memory.hitCount();
+        int total = hits + memory.missCount();
+        return total == 0 ? 0 : (float) hits / total;
+    }
+
+    /**
+     * Gets the number of bitmaps evicted from the cache to stay within its maximum size.
+     *
+     * @return The number of evictions.
+     */
+    public static int evictions() {
+        return memory.evictionCount();
+    }
+
+    /**
+     * Releases memory depending on the level passed to ComponentCallbacks2.onTrimMemory().
+     * AQuery calls this method by itself once it has loaded an image.
+     *
+     * @param level The trim memory level.
+     */
+    public static void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            memory.trim(memory.maxSize() / 2);
+            clearPool();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            clearPool();
+        }
+    }
+
+    /**
+     * Registers the cache for memory trim events of the application.
+     *
+     * @param context Required context.
+     */
+    public static void register(Context context) {
+        if (registered) {
+            return;
+        }
+        registered = true;
+
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                trimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * Marks a cached bitmap as shown by a view, so that it isn't reused while it is shown.
+     * Must be called on the UI thread.
+     *
+     * @param bitmap The shown bitmap.
+     */
+    public static void acquire(Bitmap bitmap) {
+        Integer count = shown.get(bitmap);
+        shown.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Marks a cached bitmap as no longer shown by a view. Must be called on the UI thread.
+     *
+     * @param bitmap The bitmap.
+     */
+    public static void release(Bitmap bitmap) {
+        Integer count = shown.get(bitmap);
+        if (count == null || count <= 1) {
+            shown.remove(bitmap);
+        } else {
+            shown.put(bitmap, count - 1);
+        }
+    }
+
+    /**
+     * Takes a pooled bitmap that can hold an image of the given size, to be passed as
+     * BitmapFactory.Options.inBitmap. This method can be called from any thread.
+     *
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @param config The config of the image.
+     * @return A pooled bitmap, or null if none fits.
+     */
+    public static Bitmap reusable(int width, int height, Bitmap.Config config) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) {
+            return null;
+        }
+
+        int bytes = width * height * bytesPerPixel(config);
+        synchronized (lock) {
+            int best = -1;
+            for (int i = 0; i < pool.size(); i++) {
+                int size = pool.get(i).getAllocationByteCount();
+                if (size >= bytes && (best == -1 || size < pool.get(best).getAllocationByteCount())) {
+                    best = i;
+                }
+            }
+
+            if (best == -1) {
+                return null;
+            }
+
+            Bitmap bitmap = pool.remove(best);
+            poolBytes -= bitmap.getAllocationByteCount();
+            return bitmap;
+        }
+    }
+
+    private static void recycle(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT || !bitmap.isMutable()
+                || bitmap.isRecycled() || shown.containsKey(bitmap)) {
+            return;
+        }
+
+        synchronized (lock) {
+            int size = bitmap.getAllocationByteCount();
+            int max = memory.maxSize() / 4;
+            if (size > max) {
+                return;
+            }
+
+            // drop the oldest pooled bitmaps to make room
+            while (poolBytes + size > max && !pool.isEmpty()) {
+                poolBytes -= pool.remove(0).getAllocationByteCount();
+            }
+            pool.add(bitmap);
+            poolBytes += size;
+        }
+    }
+
+    private static void clearPool() {
+        synchronized (lock) {
+            pool.clear();
+            poolBytes = 0;
+        }
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        } else if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        return 4;
+    }
+
+    private static class Memory extends LruCache<String, Bitmap> {
+
+        private boolean trimming;
+
+        Memory(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                    ? bitmap.getAllocationByteCount() : bitmap.getByteCount();
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+            if (evicted && !trimming && oldValue != newValue) {
+                recycle(oldValue);
+            }
+        }
+
+        void trim(int size) {
+            trimming = true;
+            try {
+                trimToSize(size);
+            } finally {
+                trimming = false;
+            }
+        }
+
+        void clear() {
+            trim(-1);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.mzaart.aquery.utils;
+
+/**
+ * This class contains utility methods that work on a CharSequence directly, without copying it
+ * to a String. They can be used on the live text of a TextView or an EditText.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class Chars {
+
+    // returned by parse() for texts that aren't an int, out of the range of int
+    static final long INVALID = Long.MIN_VALUE;
+
+    private Chars() {
+    }
+
+    /**
+     * Checks if two texts contain the same characters. Spans and styles are ignored.
+     *
+     * @param a The first text.
+     * @param b The second text.
+     * @return True if both texts contain the same characters or are both null, false otherwise.
+     */
+    public static boolean equals(CharSequence a, CharSequence b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+
+        int length = a.length();
+        if (length != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a text contains another text.
+     *
+     * @param text The text to search in.
+     * @param part The text to search for.
+     * @return True if text contains part, false otherwise.
+     *
+     * @throws IllegalArgumentException If a parameter is null.
+     */
+    public static boolean contains(CharSequence text, CharSequence part) {
+        if (text == null || part == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        int partLength = part.length();
+        if (partLength == 0) {
+            return true;
+        }
+
+        char first = part.charAt(0);
+        int last = text.length() - partLength;
+        for (int i = 0; i <= last; i++) {
+            if (text.charAt(i) != first) {
+                continue;
+            }
+
+            int j = 1;
+            while (j < partLength && text.charAt(i + j) == part.charAt(j)) {
+                j++;
+            }
+            if (j == partLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a text as a number in base 10, the way Integer.parseInt() does.
+     *
+     * @param text The text to parse.
+     * @param fallback The value to return if the text isn't a number.
+     * @return The parsed number, or fallback if the text isn't a number in the range of int.
+     */
+    public static int parseInt(CharSequence text, int fallback) {
+        long value = parse(text);
+        return value != INVALID ? (int) value : fallback;
+    }
+
+    /**
+     * Parses a text as a number in base 10.
+     *
+     * @return The parsed number, or INVALID if the text isn't a number in the range of int.
+     */
+    static long parse(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return INVALID;
+        }
+
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (length == 1) {
+                return INVALID;
+            }
+            i++;
+        }
+
+        // accumulated negatively, since the negative range is larger
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int minBeforeMultiply = limit / 10;
+        int result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0 || result < minBeforeMultiply) {
+                return INVALID;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return INVALID;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+}
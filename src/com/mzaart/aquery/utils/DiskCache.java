@@ -0,0 +1,495 @@
+package com.mzaart.aquery.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a size bounded, least recently used cache of byte arrays stored in a directory.
+ *
+ * Every entry is stored in its own file. The operations on the cache are recorded in a journal
+ * file, which is replayed when the cache is opened. An entry is written to a temporary file and
+ * renamed once it is complete, so an entry that was being written when the process died is
+ * discarded when the cache is opened again. The journal is compacted by writing a new one and
+ * renaming it over the old one, which is kept as a backup on file systems where a rename
+ * can't replace a file, so a crash never leaves the cache without a journal. A line torn by a
+ * crash ends the journal, and the entries replayed before it are kept. A journal whose header
+ * can't be read is discarded along with all the entries.
+ *
+ * The cache only uses plain file I/O, so it can be used outside of Android. All methods can be
+ * called from any thread, but they do I/O and shouldn't be called on the UI thread.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class DiskCache {
+
+    private static final String JOURNAL = "journal";
+    private static final String JOURNAL_TMP = "journal.tmp";
+    private static final String JOURNAL_BACKUP = "journal.bkp";
+    private static final String HEADER = "aquery.DiskCache 1";
+
+    private static final String DIRTY = "D";
+    private static final String CLEAN = "C";
+    private static final String REMOVE = "R";
+    private static final String READ = "A";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    // the journal is rewritten once it holds this many more records than entries
+    private static final int REDUNDANT_RECORDS = 2000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File directory;
+    private final long maxSize;
+
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private int records;
+
+    private Writer journal;
+
+    private DiskCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Opens a cache in a directory, creating the directory if needed.
+     *
+     * @param directory The directory of the cache. It shouldn't be used for anything else.
+     * @param maxSize The maximum size of the cache, in bytes.
+     * @return The opened cache.
+     *
+     * @throws IOException If the directory can't be created or read.
+     * @throws IllegalArgumentException If directory is null or maxSize isn't positive.
+     */
+    public static DiskCache open(File directory, long maxSize) throws IOException {
+        if (directory == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("maxSize should be positive");
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can't create directory " + directory);
+
+        // a backup is left when the process died while the journal was being replaced
+        File backup = new File(directory, JOURNAL_BACKUP);
+        if (backup.exists()) {
+            File journal = new File(directory, JOURNAL);
+            if (journal.exists()) {
+                backup.delete();
+            } else if (!backup.renameTo(journal)) {
+                throw new IOException("Can't rename " + backup);
+            }
+        }
+
+        DiskCache cache = new DiskCache(directory, maxSize);
+        try {
+            cache.readJournal();
+        } catch (IOException e) {
+            // the journal is missing or corrupt, start over
+            cache.delete();
+            if (!directory.isDirectory() && !directory.mkdirs())
+                throw new IOException("Can't create directory " + directory);
+            cache.entries.clear();
+            cache.size = 0;
+        }
+        cache.rewriteJournal();
+        cache.trim();
+        return cache;
+    }
+
+    /**
+     * Reads an entry.
+     *
+     * @param key The key of the entry.
+     * @return The content of the entry, or null if the entry doesn't exist.
+     *
+     * @throws IOException If the entry can't be read.
+     */
+    public synchronized byte[] get(String key) throws IOException {
+        checkOpen();
+        String name = name(key);
+        Long length = entries.get(name);
+        if (length == null) {
+            return null;
+        }
+
+        byte[] data;
+        try {
+            data = read(new File(directory, name), length);
+        } catch (IOException e) {
+            // the entry was deleted or truncated behind our back
+            removeEntry(name);
+            return null;
+        }
+
+        record(READ, name);
+        return data;
+    }
+
+    /**
+     * Writes an entry, replacing the existing entry with the same key.
+     *
+     * @param key The key of the entry.
+     * @param data The content of the entry.
+     *
+     * @throws IOException If the entry can't be written.
+     */
+    public synchronized void put(String key, byte[] data) throws IOException {
+        checkOpen();
+        String name = name(key);
+        File file = new File(directory, name);
+        File tmp = new File(directory, name + TMP_SUFFIX);
+
+        record(DIRTY, name);
+        try {
+            write(tmp, data);
+            replace(tmp, file);
+        } catch (IOException e) {
+            tmp.delete();
+            removeEntry(name);
+            throw e;
+        }
+
+        Long previous = entries.put(name, (long) data.length);
+        if (previous != null) {
+            size -= previous;
+        }
+        size += data.length;
+        record(CLEAN, name + " " + data.length);
+
+        trim();
+    }
+
+    /**
+     * Removes an entry.
+     *
+     * @param key The key of the entry.
+     * @return True if the entry existed, false otherwise.
+     *
+     * @throws IOException If the removal can't be recorded.
+     */
+    public synchronized boolean remove(String key) throws IOException {
+        checkOpen();
+        return removeEntry(name(key));
+    }
+
+    /**
+     * Checks if an entry exists.
+     *
+     * @param key The key of the entry.
+     * @return True if the entry exists, false otherwise.
+     */
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(name(key));
+    }
+
+    /**
+     * Gets the size of the stored entries.
+     *
+     * @return The size of the stored entries, in bytes.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum size of the cache.
+     *
+     * @return The maximum size of the cache, in bytes.
+     */
+    public long maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of stored entries.
+     *
+     * @return The number of stored entries.
+     */
+    public synchronized int count() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all entries.
+     *
+     * @throws IOException If the entries can't be removed.
+     */
+    public synchronized void clear() throws IOException {
+        checkOpen();
+        journal.close();
+        journal = null;
+        delete();
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can't create directory " + directory);
+
+        entries.clear();
+        size = 0;
+        rewriteJournal();
+    }
+
+    /**
+     * Closes the cache. A closed cache can't be used anymore.
+     *
+     * @throws IOException If the journal can't be closed.
+     */
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private void checkOpen() {
+        if (journal == null)
+            throw new IllegalStateException("The cache is closed.");
+    }
+
+    private boolean removeEntry(String name) throws IOException {
+        Long length = entries.remove(name);
+        if (length == null) {
+            return false;
+        }
+
+        size -= length;
+        new File(directory, name).delete();
+        record(REMOVE, name);
+        return true;
+    }
+
+    private void trim() throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getValue();
+            new File(directory, eldest.getKey()).delete();
+            record(REMOVE, eldest.getKey());
+        }
+    }
+
+    private void record(String op, String args) throws IOException {
+        journal.write(op + " " + args + "\n");
+        journal.flush();
+
+        if (++records >= REDUNDANT_RECORDS + entries.size()) {
+            rewriteJournal();
+        }
+    }
+
+    private void readJournal() throws IOException {
+        File file = new File(directory, JOURNAL);
+        List<String> dirty = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), UTF_8));
+        try {
+            if (!HEADER.equals(reader.readLine()))
+                throw new IOException("Unexpected journal header");
+
+            // a line that can't be replayed was torn by a crash while it was appended, so the
+            // journal ends there; the open cache rewrites it
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!replay(line, dirty)) {
+                    break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        // entries that were being written when the process died are incomplete
+        for (String name : dirty) {
+            entries.remove(name);
+            new File(directory, name).delete();
+        }
+
+        // entries whose file is missing or has the wrong size are dropped
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            File entryFile = new File(directory, entry.getKey());
+            if (entryFile.length() != entry.getValue()) {
+                iterator.remove();
+                entryFile.delete();
+            } else {
+                size += entry.getValue();
+            }
+        }
+
+        // leftovers of interrupted writes and files that aren't in the journal
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                String name = f.getName();
+                if (!name.equals(JOURNAL) && !entries.containsKey(name)) {
+                    f.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays a line of the journal.
+     *
+     * @param dirty The names of the entries being written, updated by the line.
+     * @return False if the line is malformed.
+     */
+    private boolean replay(String line, List<String> dirty) {
+        String[] parts = line.split(" ");
+        if (parts.length < 2) {
+            return false;
+        }
+
+        String op = parts[0];
+        String name = parts[1];
+        if (DIRTY.equals(op) && parts.length == 2) {
+            dirty.add(name);
+        } else if (CLEAN.equals(op) && parts.length == 3) {
+            long length;
+            try {
+                length = Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            dirty.remove(name);
+            entries.put(name, length);
+        } else if (REMOVE.equals(op) && parts.length == 2) {
+            dirty.remove(name);
+            entries.remove(name);
+        } else if (READ.equals(op) && parts.length == 2) {
+            entries.get(name);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes a journal that only contains the current entries, replacing the existing one.
+     */
+    private void rewriteJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+
+        File tmp = new File(directory, JOURNAL_TMP);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), UTF_8));
+        try {
+            writer.write(HEADER + "\n");
+            // iterating an access ordered map in order keeps the recency of the entries
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                writer.write(CLEAN + " " + entry.getKey() + " " + entry.getValue() + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+
+        File file = new File(directory, JOURNAL);
+        if (!tmp.renameTo(file)) {
+            // the old journal is only deleted once the new one is in place
+            File backup = new File(directory, JOURNAL_BACKUP);
+            if (file.exists() && !file.renameTo(backup))
+                throw new IOException("Can't rename " + file);
+            if (!tmp.renameTo(file)) {
+                backup.renameTo(file);
+                throw new IOException("Can't rename " + tmp);
+            }
+            backup.delete();
+        }
+
+        journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), UTF_8));
+        records = 0;
+    }
+
+    /**
+     * Renames a file over another one. A rename replaces its target atomically on POSIX file
+     * systems, Android's included; elsewhere the target is deleted first.
+     */
+    private static void replace(File from, File to) throws IOException {
+        if (from.renameTo(to)) {
+            return;
+        }
+        if (to.exists() && !to.delete())
+            throw new IOException("Can't delete " + to);
+        if (!from.renameTo(to))
+            throw new IOException("Can't rename " + from);
+    }
+
+    private void delete() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+    }
+
+    private static byte[] read(File file, long length) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            if (channel.size() != length)
+                throw new IOException("Unexpected size of " + file);
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1)
+                    throw new IOException("Unexpected end of " + file);
+            }
+            return buffer.array();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Maps a key to a file name.
+     */
+    private static String name(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = Character.forDigit((digest[i] >> 4) & 0xf, 16);
+                hex[i * 2 + 1] = Character.forDigit(digest[i] & 0xf, 16);
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
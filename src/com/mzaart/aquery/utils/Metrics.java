@@ -0,0 +1,242 @@
+package com.mzaart.aquery.utils;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+import android.util.TypedValue;
+import android.view.Display;
+
+/**
+ * This class converts between units using cached display metrics.
+ *
+ * Conversions use the display metrics of the passed context's resources, which may differ
+ * from the application's (for example, in a multi-window Activity). The scale factors of the
+ * last used metrics are cached and computed again once other metrics are used or the metrics
+ * change. The real screen size is cached per display until the configuration of the app
+ * changes. All methods can be called from any thread.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class Metrics {
+
+    private static volatile Scale scale;
+    private static volatile boolean registered;
+
+    // the real sizes of the displays by id, as {width, height}, guarded by itself
+    private static final SparseArray<int[]> screenSizes = new SparseArray<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Gets the number of pixels corresponding to a DP value.
+     *
+     * @param context Required context.
+     * @param dp The number of DP pixels to convert.
+     * @return The number of pixels corresponding to a DP value.
+     */
+    public static int dpToPx(Context context, int dp) {
+        return Math.round(dp * scale(context).dp);
+    }
+
+    /**
+     * Converts DP values to pixels.
+     *
+     * @param context Required context.
+     * @param dp The DP values to convert.
+     * @param px The array to write the pixel values to. It can be the dp array itself.
+     *
+     * @throws IllegalArgumentException If an array is null or px is shorter than dp.
+     */
+    public static void dpToPx(Context context, int[] dp, int[] px) {
+        if (dp == null || px == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+        if (px.length < dp.length)
+            throw new IllegalArgumentException("The output array is too short");
+
+        float factor = scale(context).dp;
+        for (int i = 0; i < dp.length; i++) {
+            px[i] = Math.round(dp[i] * factor);
+        }
+    }
+
+    /**
+     * Gets the number of DP pixels corresponding to a pixel value.
+     *
+     * @param context Required context.
+     * @param px The number of pixels to convert.
+     * @return The number of DP pixels corresponding to a pixel value.
+     */
+    public static int pxToDp(Context context, int px) {
+        return Math.round(px / scale(context).dp);
+    }
+
+    /**
+     * Converts pixel values to DP.
+     *
+     * @param context Required context.
+     * @param px The pixel values to convert.
+     * @param dp The array to write the DP values to. It can be the px array itself.
+     *
+     * @throws IllegalArgumentException If an array is null or dp is shorter than px.
+     */
+    public static void pxToDp(Context context, int[] px, int[] dp) {
+        if (px == null || dp == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+        if (dp.length < px.length)
+            throw new IllegalArgumentException("The output array is too short");
+
+        float factor = scale(context).dp;
+        for (int i = 0; i < px.length; i++) {
+            dp[i] = Math.round(px[i] / factor);
+        }
+    }
+
+    /**
+     * Gets the number of pixels corresponding to a SP value.
+     *
+     * @param context Required context.
+     * @param sp The SP value.
+     * @return The number of pixels corresponding to a SP value.
+     */
+    public static int spToPx(Context context, float sp) {
+        Scale s = scale(context);
+        if (Build.VERSION.SDK_INT >= 34) {
+            // font scaling is non linear for large font scales
+            return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, sp, s.metrics);
+        }
+        return (int) (sp * s.sp);
+    }
+
+    /**
+     * Converts SP values to pixels.
+     *
+     * @param context Required context.
+     * @param sp The SP values to convert.
+     * @param px The array to write the pixel values to. It can be the sp array itself.
+     *
+     * @throws IllegalArgumentException If an array is null or px is shorter than sp.
+     */
+    public static void spToPx(Context context, int[] sp, int[] px) {
+        if (sp == null || px == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+        if (px.length < sp.length)
+            throw new IllegalArgumentException("The output array is too short");
+
+        for (int i = 0; i < sp.length; i++) {
+            px[i] = spToPx(context, sp[i]);
+        }
+    }
+
+    /**
+     * Returns the screen width in pixels.
+     *
+     * @param activity Required activity.
+     * @return The screen width in pixels.
+     */
+    public static int screenWidth(Activity activity) {
+        return screenSize(activity)[0];
+    }
+
+    /**
+     * Returns the screen height in pixels.
+     *
+     * @param activity Required activity.
+     * @return The screen height in pixels.
+     */
+    public static int screenHeight(Activity activity) {
+        return screenSize(activity)[1];
+    }
+
+    /**
+     * Drops the cached metrics. The screen sizes are dropped automatically when the
+     * configuration of the app changes.
+     */
+    public static void invalidate() {
+        scale = null;
+        synchronized (screenSizes) {
+            screenSizes.clear();
+        }
+    }
+
+    private static Scale scale(Context context) {
+        // resources update their metrics in place when their configuration changes
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        Scale s = scale;
+        if (s == null || !s.matches(metrics)) {
+            s = new Scale(metrics);
+            scale = s;
+        }
+        return s;
+    }
+
+    private static int[] screenSize(Activity activity) {
+        Display display = activity.getWindowManager().getDefaultDisplay();
+        int id = display.getDisplayId();
+        synchronized (screenSizes) {
+            int[] size = screenSizes.get(id);
+            if (size != null) {
+                return size;
+            }
+        }
+
+        // registered before measuring, so that a change while measuring still invalidates
+        register(activity);
+        DisplayMetrics m = new DisplayMetrics();
+        display.getRealMetrics(m);
+        int[] size = {m.widthPixels, m.heightPixels};
+        synchronized (screenSizes) {
+            screenSizes.put(id, size);
+        }
+        return size;
+    }
+
+    private static void register(Context context) {
+        if (registered) {
+            return;
+        }
+
+        synchronized (Metrics.class) {
+            if (registered) {
+                return;
+            }
+            registered = true;
+        }
+
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+                invalidate();
+            }
+
+            @Override
+            public void onLowMemory() {
+            }
+        });
+    }
+
+    /**
+     * The scale factors of display metrics, as they were when the factors were computed.
+     */
+    private static class Scale {
+
+        final DisplayMetrics metrics;
+        final float xdpi;
+        final float dp;
+        final float sp;
+
+        Scale(DisplayMetrics metrics) {
+            this.metrics = metrics;
+            this.xdpi = metrics.xdpi;
+            this.dp = xdpi / DisplayMetrics.DENSITY_DEFAULT;
+            this.sp = metrics.scaledDensity;
+        }
+
+        boolean matches(DisplayMetrics m) {
+            return m == metrics && m.xdpi == xdpi && m.scaledDensity == sp;
+        }
+    }
+}
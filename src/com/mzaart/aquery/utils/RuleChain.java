@@ -0,0 +1,163 @@
+package com.mzaart.aquery.utils;
+
+import com.mzaart.aquery.interfaces.ValidationRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a chain of validation rules for a text field. A text is valid if it passes all
+ * the rules of the chain, which are checked in the order they were added.
+ *
+ * The rules are checked against the text itself, so the text of a field doesn't have to be
+ * copied to be validated. A chain can be shared by several fields, and checked from any thread
+ * once all its rules are added.
+ *
+ * <pre>
+ *     {@code
+ *     RuleChain age = new RuleChain().present().number().length(1, 3);
+ *     new AQ(this, R.id.age).rules(age);
+ *     ...
+ *     if (new AQ(this, R.id.age).valid()) {
+ *         ...
+ *     }
+ *     }
+ * </pre>
+ *
+ * @see Validator
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class RuleChain {
+
+    private static final ValidationRule PRESENT = new ValidationRule() {
+        @Override
+        public boolean validate(CharSequence text) {
+            return Validator.getInstance().present(text);
+        }
+    };
+
+    private static final ValidationRule NUMBER = new ValidationRule() {
+        @Override
+        public boolean validate(CharSequence text) {
+            return Validator.getInstance().number(text);
+        }
+    };
+
+    private static final ValidationRule ALPHA = new ValidationRule() {
+        @Override
+        public boolean validate(CharSequence text) {
+            return Validator.getInstance().alpha(text);
+        }
+    };
+
+    private static final ValidationRule ALPHA_SPACE = new ValidationRule() {
+        @Override
+        public boolean validate(CharSequence text) {
+            return Validator.getInstance().alphaSpace(text);
+        }
+    };
+
+    private final List<ValidationRule> rules = new ArrayList<>();
+    private volatile ValidationRule[] compiled;
+
+    /**
+     * Adds a rule that requires the text not to be null or made of white space only.
+     *
+     * @return The current chain.
+     * @see Validator#present(CharSequence)
+     */
+    public RuleChain present() {
+        return rule(PRESENT);
+    }
+
+    /**
+     * Adds a rule that requires the text to be a number in base 10.
+     *
+     * @return The current chain.
+     * @see Validator#number(CharSequence)
+     */
+    public RuleChain number() {
+        return rule(NUMBER);
+    }
+
+    /**
+     * Adds a rule that requires the text to be made of alphabetic characters only.
+     *
+     * @return The current chain.
+     * @see Validator#alpha(CharSequence)
+     */
+    public RuleChain alpha() {
+        return rule(ALPHA);
+    }
+
+    /**
+     * Adds a rule that requires the text to be made of alphabetic characters and spaces only.
+     *
+     * @return The current chain.
+     * @see Validator#alphaSpace(CharSequence)
+     */
+    public RuleChain alphaSpace() {
+        return rule(ALPHA_SPACE);
+    }
+
+    /**
+     * Adds a rule that requires the length of the text to be within bounds.
+     *
+     * @param min The minimum length.
+     * @param max The maximum length.
+     * @return The current chain.
+     *
+     * @throws IllegalArgumentException If min is negative or greater than max.
+     */
+    public RuleChain length(final int min, final int max) {
+        if (min < 0 || min > max)
+            throw new IllegalArgumentException("Invalid length bounds");
+
+        return rule(new ValidationRule() {
+            @Override
+            public boolean validate(CharSequence text) {
+                int length = text != null ? text.length() : 0;
+                return length >= min && length <= max;
+            }
+        });
+    }
+
+    /**
+     * Adds a custom rule.
+     *
+     * @param rule The rule to add.
+     * @return The current chain.
+     *
+     * @throws IllegalArgumentException If rule is null.
+     */
+    public RuleChain rule(ValidationRule rule) {
+        if (rule == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        rules.add(rule);
+        compiled = null;
+        return this;
+    }
+
+    /**
+     * Checks a text against the rules of the chain. If the calling thread is interrupted, the
+     * check stops before the next rule and the text is reported as invalid.
+     *
+     * @param text The text to check.
+     * @return True if the text passes all the rules, false otherwise.
+     */
+    public boolean validate(CharSequence text) {
+        ValidationRule[] chain = compiled;
+        if (chain == null) {
+            chain = rules.toArray(new ValidationRule[rules.size()]);
+            compiled = chain;
+        }
+
+        for (ValidationRule rule : chain) {
+            if (Thread.currentThread().isInterrupted() || !rule.validate(text)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
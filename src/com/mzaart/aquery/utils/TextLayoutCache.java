@@ -0,0 +1,112 @@
+package com.mzaart.aquery.utils;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.text.PrecomputedText;
+import android.util.LruCache;
+
+/**
+ * This class caches precomputed text layouts, keyed by the text and the text metrics
+ * parameters (typeface, size, letter spacing...) of the TextView it is measured for.
+ *
+ * Only plain String texts are cached, since the layout of spanned text also depends on its
+ * spans. PrecomputedText is only available from API 28 (Android P).
+ *
+ * @see PrecomputedText
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+@TargetApi(Build.VERSION_CODES.P)
+public class TextLayoutCache {
+
+    private static final int DEFAULT_SIZE = 128;
+
+    private static final LruCache<Key, PrecomputedText> cache = new LruCache<>(DEFAULT_SIZE);
+
+    /**
+     * Gets a cached layout.
+     *
+     * @param text The text.
+     * @param params The text metrics parameters.
+     * @return The cached layout, or null if the layout isn't cached.
+     */
+    public static PrecomputedText get(CharSequence text, PrecomputedText.Params params) {
+        if (!(text instanceof String)) {
+            return null;
+        }
+        return cache.get(new Key((String) text, params));
+    }
+
+    /**
+     * Computes the layout of a text and caches it. This method can be called from any thread.
+     *
+     * @param text The text.
+     * @param params The text metrics parameters.
+     * @return The computed layout.
+     */
+    public static PrecomputedText create(CharSequence text, PrecomputedText.Params params) {
+        PrecomputedText precomputed = PrecomputedText.create(text, params);
+        if (text instanceof String) {
+            cache.put(new Key((String) text, params), precomputed);
+        }
+        return precomputed;
+    }
+
+    /**
+     * Drops all cached layouts.
+     */
+    public static void clear() {
+        cache.evictAll();
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public static int hits() {
+        return cache.hitCount();
+    }
+
+    /**
+     * Gets the number of lookups that weren't served from the cache.
+     *
+     * @return The number of cache misses.
+     */
+    public static int misses() {
+        return cache.missCount();
+    }
+
+    /**
+     * Gets the number of cached layouts.
+     *
+     * @return The number of cached layouts.
+     */
+    public static int size() {
+        return cache.size();
+    }
+
+    private static class Key {
+
+        final String text;
+        final PrecomputedText.Params params;
+
+        Key(String text, PrecomputedText.Params params) {
+            this.text = text;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return text.equals(key.text) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + params.hashCode();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mzaart.aquery.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class provides the threads AQuery uses to move work off the UI thread.
+ *
+ * By default, background work runs on a small pool of low priority threads. Apps that manage
+ * their own threads can replace it with background(ExecutorService).
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class Threads {
+
+    private static final int POOL_SIZE =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static volatile ExecutorService background;
+    private static volatile Handler main;
+
+    /**
+     * Gets the executor that runs AQuery's background work.
+     *
+     * @return The background executor.
+     */
+    public static ExecutorService background() {
+        if (background == null) {
+            synchronized (Threads.class) {
+                if (background == null) {
+                    background = createExecutor();
+                }
+            }
+        }
+        return background;
+    }
+
+    /**
+     * Sets the executor that runs AQuery's background work.
+     *
+     * @param executor The executor to use.
+     *
+     * @throws IllegalArgumentException If executor is null.
+     */
+    public static void background(ExecutorService executor) {
+        if (executor == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        background = executor;
+    }
+
+    /**
+     * Gets a Handler attached to the main thread.
+     *
+     * @return A Handler attached to the main thread.
+     */
+    public static Handler mainHandler() {
+        if (main == null) {
+            main = new Handler(Looper.getMainLooper());
+        }
+        return main;
+    }
+
+    /**
+     * Checks if the current thread is the main (UI) thread.
+     *
+     * @return True if the current thread is the main thread, false otherwise.
+     */
+    public static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * Runs a runnable on the main thread. If the current thread is the main thread, the runnable
+     * is run right away, otherwise it is posted to the main thread.
+     *
+     * @param runnable The runnable to run.
+     */
+    public static void runOnMainThread(Runnable runnable) {
+        if (isMainThread()) {
+            runnable.run();
+        } else {
+            mainHandler().post(runnable);
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, "AQuery #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
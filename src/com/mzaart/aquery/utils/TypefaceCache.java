@@ -0,0 +1,124 @@
+package com.mzaart.aquery.utils;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.graphics.Typeface;
+import android.util.LruCache;
+
+/**
+ * This class caches typefaces loaded from the assets, keyed by their asset path.
+ *
+ * Loading a typeface reads and parses its font file, so every font file should be loaded once
+ * per process. The cache is bounded and can be used from any thread.
+ *
+ * <pre>
+ *     {@code
+ *     // in Application.onCreate()
+ *     TypefaceCache.preload(this, "fonts/Roboto-Regular.ttf", "fonts/Roboto-Bold.ttf");
+ *     }
+ * </pre>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class TypefaceCache {
+
+    private static final int MAX_SIZE = 32;
+
+    private static final LruCache<String, Typeface> cache = new LruCache<>(MAX_SIZE);
+
+    /**
+     * Gets a typeface, loading it if it isn't cached.
+     *
+     * @param context Required context.
+     * @param path The path of the font file in the assets.
+     * @return The typeface.
+     *
+     * @throws IllegalArgumentException If context or path is null.
+     */
+    public static Typeface get(Context context, String path) {
+        if (context == null || path == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        Typeface typeface = cache.get(path);
+        if (typeface == null) {
+            typeface = load(context.getAssets(), path);
+        }
+        return typeface;
+    }
+
+    /**
+     * Loads typefaces on a background thread, so that later calls to get() don't have to
+     * load them. Paths whose font file can't be loaded are skipped.
+     *
+     * @param context Required context.
+     * @param paths The paths of the font files in the assets.
+     *
+     * @throws IllegalArgumentException If context or paths is null.
+     */
+    public static void preload(Context context, final String... paths) {
+        if (context == null || paths == null)
+            throw new IllegalArgumentException("Parameter can't be null");
+
+        final AssetManager assets = context.getAssets();
+        Threads.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                for (String path : paths) {
+                    // a snapshot doesn't count a miss for typefaces that are already cached
+                    if (path == null || cache.snapshot().containsKey(path))
+                        continue;
+
+                    try {
+                        load(assets, path);
+                    } catch (RuntimeException e) {
+                        // a missing or broken font file must not stop the other paths
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops all cached typefaces.
+     */
+    public static void clear() {
+        cache.evictAll();
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public static int hits() {
+        return cache.hitCount();
+    }
+
+    /**
+     * Gets the number of lookups that required loading the typeface.
+     *
+     * @return The number of cache misses.
+     */
+    public static int misses() {
+        return cache.missCount();
+    }
+
+    /**
+     * Gets the number of cached typefaces.
+     *
+     * @return The number of cached typefaces.
+     */
+    public static int size() {
+        return cache.size();
+    }
+
+    private static Typeface load(AssetManager assets, String path) {
+        Typeface typeface = Typeface.createFromAsset(assets, path);
+        // keep the typeface that is already cached if another thread loaded it meanwhile
+        Typeface previous = cache.put(path, typeface);
+        if (previous != null) {
+            cache.put(path, previous);
+            return previous;
+        }
+        return typeface;
+    }
+}
@@ -2,16 +2,32 @@ package com.mzaart.aquery.utils;
 
 /**
  * This class contains utility methods for input validation.
+ *
+ * The checks scan the characters of the text directly, without regular expressions, exceptions
+ * or copies, so they are cheap enough to run on every keystroke. Any CharSequence can be
+ * checked, including the live Editable of an EditText. A Validator has no state, so
+ * a single shared instance can be used from any thread.
  */
 @SuppressWarnings({"unused", "WeakerAccess"})
 public class Validator {
 
+    private static final Validator instance = new Validator();
+
+    /**
+     * Returns the shared Validator.
+     *
+     * @return The shared Validator.
+     */
+    public static Validator getInstance() {
+        return instance;
+    }
+
     /**
      * Checks if the Sting is null
      * @param str The String to check
      * @return true if the String is not null, false otherwise
      */
-    public boolean notNull(String str) {
+    public boolean notNull(CharSequence str) {
         return str != null;
     }
 
@@ -20,8 +36,8 @@ public class Validator {
      * @param str The Sting to check
      * @return True if the String is not empty, false otherwise
      */
-    public boolean notEmpty(String str) {
-        return !str.isEmpty();
+    public boolean notEmpty(CharSequence str) {
+        return str.length() > 0;
     }
 
     /**
@@ -29,8 +45,15 @@ public class Validator {
      * @param str The Sting to check
      * @return True if the String contains non-white space characters, false otherwise
      */
-    public boolean notWhiteSpace(String str) {
-        return str.trim().length() > 0;
+    public boolean notWhiteSpace(CharSequence str) {
+        // same characters as String.trim()
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -38,7 +61,7 @@ public class Validator {
      * @param str The Sting to check
      * @return True if the String contains non-white space characters, false otherwise
      */
-    public boolean present(String str) {
+    public boolean present(CharSequence str) {
         return notNull(str) && notWhiteSpace(str);
     }
 
@@ -47,14 +70,9 @@ public class Validator {
      * @param str The String to check
      * @return True if the String is a number in base 10, false otherwise
      */
-    @SuppressWarnings("ResultOfMethodCallIgnored")
-    public boolean number(String str) {
-        try {
-            Integer.parseInt(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+    public boolean number(CharSequence str) {
+        // accepts what Integer.parseInt() accepts
+        return Chars.parse(str) != Chars.INVALID;
     }
 
     /**
@@ -62,8 +80,8 @@ public class Validator {
      * @param str The String to check
      * @return True if the String is composed entirely of alphabetic characters, false otherwise
      */
-    public boolean alpha(String str) {
-        return str.matches("[a-zA-Z]+");
+    public boolean alpha(CharSequence str) {
+        return letters(str, false);
     }
 
     /**
@@ -71,7 +89,25 @@ public class Validator {
      * @param str The String to check
      * @return True if the String is composed of alphabetic characters, false otherwise
      */
-    public boolean alphaSpace(String str) {
-        return str.matches("[a-zA-Z ]+");
+    public boolean alphaSpace(CharSequence str) {
+        return letters(str, true);
+    }
+
+    /**
+     * Checks if the String is non empty and only made of ASCII letters, and spaces if allowed.
+     */
+    private static boolean letters(CharSequence str, boolean spaces) {
+        int length = str.length();
+        if (length == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (spaces && c == ' '))) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,160 @@
+package com.mzaart.aquery.utils;
+
+import android.util.SparseArray;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class caches the results of id lookups (findViewById) per root view.
+ *
+ * Root views are weakly referenced, so caching doesn't keep a view hierarchy alive. A cached
+ * view is only returned if it still carries the requested id and is still a descendant of
+ * the root, otherwise the tree is walked again. The lookups of a root are dropped when the
+ * root is detached from its window.
+ *
+ * Lookups made off the UI thread (for example, by AQuery objects created on a worker thread
+ * while setters are marshaled) walk the tree without touching the cache, since the cache
+ * isn't synchronized.
+ *
+ * Note: The other methods of this class are meant to be used from the UI thread only.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ViewCache {
+
+    private static final Map<View, Lookups> roots = new WeakHashMap<>();
+
+    private static boolean enabled = true;
+    private static int hits;
+    private static int misses;
+
+    /**
+     * Finds the view with the given id in the hierarchy of a root view.
+     *
+     * @param root The root view to search in.
+     * @param id The view's id.
+     * @return The view with the given id, or null if no such view exists.
+     */
+    public static View find(View root, int id) {
+        if (!enabled || id == View.NO_ID || !Threads.isMainThread()) {
+            return root.findViewById(id);
+        }
+
+        Lookups lookups = roots.get(root);
+        if (lookups == null) {
+            lookups = new Lookups();
+            roots.put(root, lookups);
+            root.addOnAttachStateChangeListener(lookups);
+        }
+
+        WeakReference<View> ref = lookups.views.get(id);
+        View view = ref != null ? ref.get() : null;
+        if (view != null && view.getId() == id && isDescendant(root, view)) {
+            hits++;
+            return view;
+        }
+
+        misses++;
+        view = root.findViewById(id);
+        if (view != null) {
+            lookups.views.put(id, new WeakReference<>(view));
+        } else {
+            lookups.views.remove(id);
+        }
+        return view;
+    }
+
+    /**
+     * Drops the cached lookups of a root view.
+     *
+     * @param root The root view.
+     */
+    public static void invalidate(View root) {
+        Lookups lookups = roots.get(root);
+        if (lookups != null) {
+            lookups.views.clear();
+        }
+    }
+
+    /**
+     * Drops all cached lookups.
+     */
+    public static void clear() {
+        for (Lookups lookups : roots.values()) {
+            lookups.views.clear();
+        }
+    }
+
+    /**
+     * Enables or disables the cache. When disabled, every lookup walks the view tree.
+     *
+     * @param enabled True to enable the cache, false otherwise.
+     */
+    public static void enabled(boolean enabled) {
+        ViewCache.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public static int hits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that required walking the view tree.
+     *
+     * @return The number of cache misses.
+     */
+    public static int misses() {
+        return misses;
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public static void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+    private static boolean isDescendant(View root, View view) {
+        if (view == root) {
+            return true;
+        }
+
+        Object parent = view.getParent();
+        while (parent instanceof View) {
+            if (parent == root) {
+                return true;
+            }
+            parent = ((View) parent).getParent();
+        }
+        return false;
+    }
+
+    /**
+     * The cached lookups of a single root. It doesn't reference the root itself so that the
+     * root can be collected while being a key of the cache.
+     */
+    private static class Lookups implements View.OnAttachStateChangeListener {
+
+        final SparseArray<WeakReference<View>> views = new SparseArray<>();
+
+        @Override
+        public void onViewAttachedToWindow(View view) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View view) {
+            views.clear();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.mzaart.aquery.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private DiskCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new File(folder.getRoot(), "cache");
+        cache = DiskCache.open(directory, 10);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+    }
+
+    @Test
+    public void putThenGet() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+
+        assertArrayEquals(bytes(1, 2, 3), cache.get("a"));
+        assertTrue(cache.contains("a"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.count());
+    }
+
+    @Test
+    public void getMissingEntry() throws IOException {
+        assertNull(cache.get("a"));
+        assertFalse(cache.contains("a"));
+    }
+
+    @Test
+    public void putReplacesEntry() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+        cache.put("a", bytes(4));
+
+        assertArrayEquals(bytes(4), cache.get("a"));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.count());
+    }
+
+    @Test
+    public void remove() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+
+        assertTrue(cache.remove("a"));
+        assertFalse(cache.remove("a"));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        cache.put("a", bytes(1, 2, 3, 4));
+        cache.put("b", bytes(1, 2, 3, 4));
+        cache.get("a");
+        cache.put("c", bytes(1, 2, 3, 4));
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertEquals(8, cache.size());
+    }
+
+    @Test
+    public void evictsEntryLargerThanCache() throws IOException {
+        cache.put("a", new byte[11]);
+
+        assertFalse(cache.contains("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void clear() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+        cache.clear();
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+
+        cache.put("b", bytes(1));
+        assertArrayEquals(bytes(1), cache.get("b"));
+    }
+
+    @Test
+    public void replaysJournal() throws IOException {
+        cache.put("a", bytes(1, 2, 3, 4));
+        cache.put("b", bytes(5, 6, 7, 8));
+        cache.remove("b");
+        cache.put("c", bytes(9));
+        cache.close();
+
+        cache = DiskCache.open(directory, 10);
+
+        assertArrayEquals(bytes(1, 2, 3, 4), cache.get("a"));
+        assertFalse(cache.contains("b"));
+        assertArrayEquals(bytes(9), cache.get("c"));
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    public void replayKeepsRecency() throws IOException {
+        cache.put("a", bytes(1, 2, 3, 4));
+        cache.put("b", bytes(1, 2, 3, 4));
+        cache.get("a");
+        cache.close();
+
+        cache = DiskCache.open(directory, 10);
+        cache.put("c", bytes(1, 2, 3, 4));
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+    }
+
+    @Test
+    public void replayDropsTruncatedEntries() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+        cache.put("b", bytes(4, 5, 6));
+        cache.close();
+
+        File[] files = directory.listFiles();
+        for (File f : files) {
+            if (f.length() == 3) {
+                write(f, bytes(1));
+                break;
+            }
+        }
+
+        cache = DiskCache.open(directory, 10);
+
+        assertEquals(1, cache.count());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void replayRecoversBackupJournal() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+        cache.close();
+
+        // the process died after moving the old journal aside, before the new one was in place
+        File journal = new File(directory, "journal");
+        assertTrue(journal.renameTo(new File(directory, "journal.bkp")));
+
+        cache = DiskCache.open(directory, 10);
+
+        assertArrayEquals(bytes(1, 2, 3), cache.get("a"));
+        assertFalse(new File(directory, "journal.bkp").exists());
+    }
+
+    @Test
+    public void replayStopsAtTornLastLine() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+        cache.put("b", bytes(4, 5));
+        cache.close();
+
+        // the process died while appending a record
+        File journal = new File(directory, "journal");
+        FileOutputStream out = new FileOutputStream(journal, true);
+        try {
+            out.write("C abc".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        cache = DiskCache.open(directory, 10);
+
+        assertEquals(2, cache.count());
+        assertArrayEquals(bytes(1, 2, 3), cache.get("a"));
+        assertArrayEquals(bytes(4, 5), cache.get("b"));
+
+        // the torn line was dropped when the journal was rewritten
+        cache.close();
+        cache = DiskCache.open(directory, 10);
+        assertEquals(2, cache.count());
+    }
+
+    @Test
+    public void corruptJournalStartsOver() throws IOException {
+        cache.put("a", bytes(1, 2, 3));
+        cache.close();
+
+        write(new File(directory, "journal"), "garbage\n".getBytes("UTF-8"));
+
+        cache = DiskCache.open(directory, 10);
+
+        assertFalse(cache.contains("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void compactsJournal() throws IOException {
+        cache.put("a", bytes(1));
+        for (int i = 0; i < 5000; i++) {
+            cache.get("a");
+        }
+        cache.close();
+
+        assertTrue(new File(directory, "journal").length() < 2500 * 43);
+
+        cache = DiskCache.open(directory, 10);
+        assertArrayEquals(bytes(1), cache.get("a"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedCacheThrows() throws IOException {
+        cache.close();
+        cache.put("a", bytes(1));
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] data = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = (byte) values[i];
+        }
+        return data;
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+}